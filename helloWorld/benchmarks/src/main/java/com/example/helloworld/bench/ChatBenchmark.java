@@ -0,0 +1,28 @@
+package com.example.helloworld.bench;
+
+import com.example.helloworld.model.ChatPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Latest page of a conversation between two users who have messaged each other
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatBenchmark {
+
+    @Benchmark
+    public ChatPage conversationPage(SeededApplication app) {
+        int[] pair = app.randomChatPair();
+        return app.chatService.getMessagesBetweenUsers(
+            app.usernames[pair[0]], app.usernames[pair[1]], null, null, 50);
+    }
+}
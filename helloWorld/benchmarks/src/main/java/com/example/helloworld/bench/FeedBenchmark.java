@@ -0,0 +1,37 @@
+package com.example.helloworld.bench;
+
+import com.example.helloworld.model.FeedPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// First feed page for a random user, with and without a category filter
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedBenchmark {
+
+    @Benchmark
+    public FeedPage feedPage(SeededApplication app) {
+        return app.postService.findUnswipedPostsForUser(app.randomUserId(), null, 50);
+    }
+
+    @Benchmark
+    public FeedPage feedPageInCategories(SeededApplication app) {
+        String[] categories = SeededApplication.CATEGORIES;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> picked = List.of(categories[random.nextInt(categories.length)],
+                                      categories[random.nextInt(categories.length)]);
+        return app.postService.findUnswipedPostsForUser(app.randomUserId(), picked, null, 50);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.helloworld.bench;
+
+import com.example.helloworld.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Token checks as done by the authentication filter: a cached verify, a full signature parse,
+// and issuing a new token
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final int TOKENS = 1000;
+
+    private String[] tokens;
+
+    @Setup
+    public void issueTokens(SeededApplication app) {
+        JwtService jwtService = app.jwtService;
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtService.generateToken(app.usernames[i % app.usernames.length]);
+            jwtService.verify(tokens[i]);
+        }
+    }
+
+    @Benchmark
+    public String verifyCached(SeededApplication app) {
+        return app.jwtService.verify(randomToken());
+    }
+
+    @Benchmark
+    public String parseSignature(SeededApplication app) {
+        return app.jwtService.extractUsername(randomToken());
+    }
+
+    @Benchmark
+    public String generate(SeededApplication app) {
+        return app.jwtService.generateToken(app.usernames[0]);
+    }
+
+    private String randomToken() {
+        return tokens[ThreadLocalRandom.current().nextInt(TOKENS)];
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.helloworld.bench;
+
+import com.example.helloworld.HelloworldApplication;
+import com.example.helloworld.model.Post;
+import com.example.helloworld.service.ChatSearchIndex;
+import com.example.helloworld.service.ChatService;
+import com.example.helloworld.service.JwtService;
+import com.example.helloworld.service.PostService;
+import com.example.helloworld.service.SwipeService;
+import com.example.helloworld.service.UserSearchIndex;
+import com.example.helloworld.service.UserService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// The application started on an in-memory H2 database and seeded with users, posts, swipes and
+// chat messages. Sizes are JMH parameters, so -p users=1000,10000,100000 gives a scaling curve.
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    static final String[] WORDS = {
+        "java", "spring", "react", "deploy", "cloud", "design", "review", "merge", "build", "release",
+        "kotlin", "python", "docker", "kafka", "redis", "oracle", "query", "index", "cache", "stream"
+    };
+    static final String[] FIRST_NAMES = {"ada", "alan", "grace", "linus", "barbara", "dennis", "margaret", "ken"};
+    static final String[] LAST_NAMES = {"lovelace", "turing", "hopper", "torvalds", "liskov", "ritchie", "hamilton", "thompson"};
+    static final String[] DESIGNATIONS = {"developer", "designer", "architect", "manager", "student", "researcher"};
+    static final String[] CATEGORIES = {"web", "mobile", "ai", "devops", "data", "games"};
+
+    private static final int PARTNERS_PER_USER = 5;
+    private static final int BATCH = 1000;
+
+    @Param({"1000", "10000"})
+    public int users;
+
+    @Param({"2"})
+    public int postsPerUser;
+
+    @Param({"50"})
+    public int swipesPerUser;
+
+    @Param({"20"})
+    public int messagesPerUser;
+
+    // app.swipes.durability for SwipeBenchmark: GROUP_COMMIT or SYNC
+    @Param({"GROUP_COMMIT"})
+    public String durability;
+
+    ConfigurableApplicationContext context;
+    PostService postService;
+    SwipeService swipeService;
+    ChatService chatService;
+    UserService userService;
+    JwtService jwtService;
+    long[] userIds;
+    String[] usernames;
+    long[] postIds;
+    // Pairs (index into usernames) that have exchanged messages
+    int[][] chatPairs;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(HelloworldApplication.class).run(
+            "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.show-sql=false",
+            "--server.port=0",
+            "--app.upload.dir=" + Files.createTempDirectory("bench-uploads"),
+            "--app.swipes.durability=" + durability,
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.web=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.com.example.helloworld=WARN");
+        seed(context.getBean(JdbcTemplate.class), new Random(42));
+        context.getBean(UserSearchIndex.class).rebuild();
+        context.getBean(ChatSearchIndex.class).rebuild();
+        postService = context.getBean(PostService.class);
+        swipeService = context.getBean(SwipeService.class);
+        chatService = context.getBean(ChatService.class);
+        userService = context.getBean(UserService.class);
+        jwtService = context.getBean(JwtService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    long randomUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    long randomPostId() {
+        return postIds[ThreadLocalRandom.current().nextInt(postIds.length)];
+    }
+
+    int[] randomChatPair() {
+        return chatPairs[ThreadLocalRandom.current().nextInt(chatPairs.length)];
+    }
+
+    private void seed(JdbcTemplate jdbc, Random random) {
+        // Hashing once keeps seeding fast; the benchmarks never check passwords
+        String password = new BCryptPasswordEncoder().encode("password");
+        List<Object[]> rows = new ArrayList<>();
+        // Ids are assigned here and the sequences moved past them afterwards (see restartSequence)
+        for (int i = 0; i < users; i++) {
+            rows.add(new Object[] {i + 1, "user" + i, password, "user" + i + "@example.com",
+                pick(random, FIRST_NAMES), pick(random, LAST_NAMES), pick(random, DESIGNATIONS)});
+        }
+        batch(jdbc, "INSERT INTO users (id, username, password, email, first_name, last_name, designation) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        userIds = jdbc.queryForList("SELECT id FROM users ORDER BY id", Long.class).stream().mapToLong(Long::longValue).toArray();
+        usernames = jdbc.queryForList("SELECT username FROM users ORDER BY id", String.class).toArray(String[]::new);
+
+        for (int i = 0; i < users * postsPerUser; i++) {
+            String category = pick(random, CATEGORIES);
+            rows.add(new Object[] {i + 1, "Project " + i, sentence(random, 12), pick(random, WORDS),
+                category, Post.normalizeCategory(category), userIds[random.nextInt(userIds.length)]});
+        }
+        batch(jdbc, "INSERT INTO posts (id, title, description, stack, category, category_norm, author_id) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        postIds = jdbc.queryForList("SELECT id FROM posts ORDER BY id", Long.class).stream().mapToLong(Long::longValue).toArray();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int swipes = Math.min(swipesPerUser, postIds.length);
+        long swipeId = 0;
+        for (long userId : userIds) {
+            Set<Long> swiped = new HashSet<>();
+            while (swiped.size() < swipes) {
+                swiped.add(postIds[random.nextInt(postIds.length)]);
+            }
+            for (Long postId : swiped) {
+                rows.add(new Object[] {++swipeId, userId, postId, random.nextBoolean() ? "RIGHT" : "LEFT", now});
+            }
+            if (rows.size() >= BATCH) {
+                batch(jdbc, "INSERT INTO swipes (id, user_id, post_id, direction, swiped_at) VALUES (?, ?, ?, ?, ?)", rows);
+            }
+        }
+        batch(jdbc, "INSERT INTO swipes (id, user_id, post_id, direction, swiped_at) VALUES (?, ?, ?, ?, ?)", rows);
+
+        List<int[]> pairs = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        long sequence = 0;
+        for (int i = 0; i < users; i++) {
+            int[] partners = new int[PARTNERS_PER_USER];
+            for (int p = 0; p < partners.length; p++) {
+                partners[p] = random.nextInt(users);
+                pairs.add(new int[] {i, partners[p]});
+            }
+            for (int m = 0; m < messagesPerUser; m++) {
+                int partner = partners[random.nextInt(partners.length)];
+                boolean outgoing = random.nextBoolean();
+                rows.add(new Object[] {sequence + 1, usernames[outgoing ? i : partner], usernames[outgoing ? partner : i],
+                    sentence(random, 8), Timestamp.valueOf(start.plusSeconds(sequence++))});
+            }
+            if (rows.size() >= BATCH) {
+                batch(jdbc, "INSERT INTO chat_messages (id, sender, recipient, content, timestamp) VALUES (?, ?, ?, ?, ?)", rows);
+            }
+        }
+        batch(jdbc, "INSERT INTO chat_messages (id, sender, recipient, content, timestamp) VALUES (?, ?, ?, ?, ?)", rows);
+        chatPairs = pairs.toArray(int[][]::new);
+
+        restartSequence(jdbc, "users_seq", users);
+        restartSequence(jdbc, "posts_seq", postIds.length);
+        restartSequence(jdbc, "swipes_seq", swipeId);
+        restartSequence(jdbc, "chat_messages_seq", sequence);
+    }
+
+    // Hibernate takes the block of 50 ids ending at each sequence value, so the next value must be
+    // at least 50 above the highest seeded id
+    private static void restartSequence(JdbcTemplate jdbc, String sequence, long maxId) {
+        jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 50));
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH, rows.size())));
+        }
+        rows.clear();
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(pick(random, WORDS));
+        }
+        return text.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.helloworld.bench;
+
+import com.example.helloworld.model.Swipe;
+import com.example.helloworld.model.SwipeEvent;
+import com.example.helloworld.service.SwipeBackPressureException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// One swipe by a random user on a random post; run with -p durability=SYNC to include the commit
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwipeBenchmark {
+
+    @Benchmark
+    public SwipeEvent swipe(SeededApplication app) {
+        Swipe.SwipeDirection direction = ThreadLocalRandom.current().nextBoolean()
+            ? Swipe.SwipeDirection.RIGHT : Swipe.SwipeDirection.LEFT;
+        try {
+            return app.swipeService.swipe(app.randomUserId(), app.randomPostId(), direction, LocalDateTime.now());
+        } catch (SwipeBackPressureException e) {
+            // Queue full: the flusher is the bottleneck at this rate, which is itself the result
+            return null;
+        }
+    }
+}
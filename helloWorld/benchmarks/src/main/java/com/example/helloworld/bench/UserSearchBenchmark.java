@@ -0,0 +1,37 @@
+package com.example.helloworld.bench;
+
+import com.example.helloworld.model.UserSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Typeahead: the first two to four letters of a name, or a username prefix
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    @Benchmark
+    public List<UserSummary> namePrefix(SeededApplication app) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] names = random.nextBoolean() ? SeededApplication.FIRST_NAMES : SeededApplication.LAST_NAMES;
+        String name = names[random.nextInt(names.length)];
+        return app.userService.searchUsers(name.substring(0, 2 + random.nextInt(3)), 10);
+    }
+
+    @Benchmark
+    public List<UserSummary> usernamePrefix(SeededApplication app) {
+        String username = app.usernames[ThreadLocalRandom.current().nextInt(app.usernames.length)];
+        return app.userService.searchUsers(username.substring(0, Math.min(6, username.length())), 10);
+    }
+}
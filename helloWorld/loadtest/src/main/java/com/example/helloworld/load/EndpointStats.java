@@ -0,0 +1,20 @@
+package com.example.helloworld.load;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencies and failures of one action of the traffic mix
+final class EndpointStats {
+
+    final String name;
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    double errorRate() {
+        long total = latency.count();
+        return total == 0 ? 0 : (double) errors.sum() / total;
+    }
+}
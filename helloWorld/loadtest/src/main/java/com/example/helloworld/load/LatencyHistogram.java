@@ -0,0 +1,50 @@
+package com.example.helloworld.load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram with logarithmic buckets 2% wide, from 1 µs to about ten minutes.
+// Percentiles are reported as the upper bound of their bucket, so they are within 2% of the truth.
+final class LatencyHistogram {
+
+    private static final double GROWTH = 1.02;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 1024;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        int bucket = (int) Math.min(BUCKETS - 1, Math.floor(Math.log(micros) / LOG_GROWTH));
+        counts.incrementAndGet(bucket);
+        total.increment();
+        maxMicros.accumulate(micros);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    double percentileMillis(double percentile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(Math.pow(GROWTH, bucket + 1), maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    double maxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+}
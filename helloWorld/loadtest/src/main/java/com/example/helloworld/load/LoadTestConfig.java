@@ -0,0 +1,67 @@
+package com.example.helloworld.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// loadtest.properties from the classpath, overridden by -Dloadtest.* system properties
+final class LoadTestConfig {
+
+    static final String PREFIX = "loadtest.";
+
+    private final Properties properties = new Properties();
+
+    LoadTestConfig() throws IOException {
+        try (InputStream in = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+        System.getProperties().stringPropertyNames().stream()
+            .filter(name -> name.startsWith(PREFIX))
+            .forEach(name -> properties.setProperty(name, System.getProperty(name)));
+    }
+
+    String baseUrl() { return string("base-url", ""); }
+    int users() { return integer("users", 200); }
+    int postsPerUser() { return integer("posts-per-user", 2); }
+    double avatarFraction() { return decimal("avatar-fraction", 0.5); }
+    int warmupSeconds() { return integer("warmup-seconds", 10); }
+    int durationSeconds() { return integer("duration-seconds", 60); }
+    long thinkTimeMillis() { return integer("think-time-ms", 50); }
+    double maxErrorRate() { return decimal("slo.max-error-rate", 0.01); }
+
+    // "feed=45,swipe=25" -> {feed=45, swipe=25}
+    Map<String, Integer> mix() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : string("mix", "").split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length == 2) {
+                weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        return weights;
+    }
+
+    // Latency SLO for the endpoint at the percentile ("p50", "p99"), or null if none is set
+    Double sloMillis(String endpoint, String percentile) {
+        String value = properties.getProperty(PREFIX + "slo." + endpoint + "." + percentile + "-ms");
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+
+    private String string(String key, String fallback) {
+        return properties.getProperty(PREFIX + key, fallback).trim();
+    }
+
+    private int integer(String key, int fallback) {
+        String value = string(key, "");
+        return value.isEmpty() ? fallback : Integer.parseInt(value);
+    }
+
+    private double decimal(String key, double fallback) {
+        String value = string(key, "");
+        return value.isEmpty() ? fallback : Double.parseDouble(value);
+    }
+}
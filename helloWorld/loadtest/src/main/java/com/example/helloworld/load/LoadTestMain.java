@@ -0,0 +1,61 @@
+package com.example.helloworld.load;
+
+import com.example.helloworld.HelloworldApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+// Boots the application (unless loadtest.base-url points at a running one), creates the
+// population through the API, replays the traffic mix and exits non-zero on an SLO breach.
+// The report is printed and written to target/loadtest/<timestamp>.json.
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        ConfigurableApplicationContext application = null;
+        String baseUrl = config.baseUrl();
+        int exitCode;
+        try {
+            if (baseUrl.isEmpty()) {
+                application = startApplication();
+                baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            }
+            ApiClient api = new ApiClient(baseUrl);
+            System.out.printf("Creating %d users against %s%n", config.users(), baseUrl);
+            Population population = Population.create(api, config);
+
+            System.out.printf("Running %s for %ds after %ds warmup%n", config.mix(), config.durationSeconds(), config.warmupSeconds());
+            Map<String, EndpointStats> stats = new TrafficRun(api, config, population).execute();
+
+            LoadTestReport report = new LoadTestReport(config, stats);
+            report.print();
+            String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+            report.writeJson(Paths.get("target", "loadtest", name));
+            exitCode = report.violations().isEmpty() ? 0 : 1;
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startApplication() throws Exception {
+        Path uploads = Files.createTempDirectory("loadtest-uploads");
+        return new SpringApplicationBuilder(HelloworldApplication.class).run(
+            "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.show-sql=false",
+            "--server.port=0",
+            "--app.upload.dir=" + uploads,
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.web=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.com.example.helloworld=WARN");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.helloworld.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-endpoint throughput and latency percentiles, checked against the configured SLOs
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final LoadTestConfig config;
+    private final Map<String, EndpointStats> stats;
+    private final List<String> violations = new ArrayList<>();
+
+    LoadTestReport(LoadTestConfig config, Map<String, EndpointStats> stats) {
+        this.config = config;
+        this.stats = stats;
+        for (EndpointStats endpoint : stats.values()) {
+            check(endpoint, "p50", 50);
+            check(endpoint, "p99", 99);
+            if (endpoint.errorRate() > config.maxErrorRate()) {
+                violations.add(String.format("%s error rate %.2f%% > %.2f%%",
+                    endpoint.name, endpoint.errorRate() * 100, config.maxErrorRate() * 100));
+            }
+        }
+    }
+
+    List<String> violations() {
+        return violations;
+    }
+
+    void print() {
+        System.out.printf("%n%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (EndpointStats endpoint : stats.values()) {
+            LatencyHistogram latency = endpoint.latency;
+            System.out.printf("%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint.name, latency.count(), endpoint.errors.sum(), throughput(endpoint),
+                latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(99),
+                latency.maxMillis());
+        }
+        if (violations.isEmpty()) {
+            System.out.println("\nAll SLOs met");
+        } else {
+            System.out.println("\nSLO violations:");
+            violations.forEach(v -> System.out.println("  " + v));
+        }
+    }
+
+    void writeJson(Path file) throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (EndpointStats endpoint : stats.values()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", endpoint.latency.count());
+            row.put("errors", endpoint.errors.sum());
+            row.put("throughputPerSecond", throughput(endpoint));
+            for (double percentile : PERCENTILES) {
+                row.put("p" + (int) percentile + "Millis", endpoint.latency.percentileMillis(percentile));
+            }
+            row.put("maxMillis", endpoint.latency.maxMillis());
+            endpoints.put(endpoint.name, row);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", config.users());
+        report.put("durationSeconds", config.durationSeconds());
+        report.put("thinkTimeMillis", config.thinkTimeMillis());
+        report.put("mix", config.mix());
+        report.put("endpoints", endpoints);
+        report.put("violations", violations);
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+    }
+
+    private double throughput(EndpointStats endpoint) {
+        return (double) endpoint.latency.count() / config.durationSeconds();
+    }
+
+    private void check(EndpointStats endpoint, String name, double percentile) {
+        Double slo = config.sloMillis(endpoint.name, name);
+        double actual = endpoint.latency.percentileMillis(percentile);
+        if (slo != null && endpoint.latency.count() > 0 && actual > slo) {
+            violations.add(String.format("%s %s %.2f ms > %.2f ms", endpoint.name, name, actual, slo));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.helloworld.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Users, posts and avatars created through the public API before the measured run
+final class Population {
+
+    // Registration and login hash passwords; more than this in parallel only queues on the server
+    private static final int SETUP_CONCURRENCY = 32;
+    private static final String[] CATEGORIES = {"web", "mobile", "ai", "devops", "data", "games"};
+
+    record TestUser(long id, String username, String token) {}
+
+    final List<TestUser> users = Collections.synchronizedList(new ArrayList<>());
+    final List<Long> postIds = Collections.synchronizedList(new ArrayList<>());
+    final List<String> avatarUsers = Collections.synchronizedList(new ArrayList<>());
+
+    static Population create(ApiClient api, LoadTestConfig config) throws Exception {
+        Population population = new Population();
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        Semaphore permits = new Semaphore(SETUP_CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < config.users(); i++) {
+                String username = "load-" + run + "-" + i;
+                boolean withAvatar = ThreadLocalRandom.current().nextDouble() < config.avatarFraction();
+                tasks.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        population.setUpUser(api, config, username, withAvatar);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        }
+        return population;
+    }
+
+    private void setUpUser(ApiClient api, LoadTestConfig config, String username, boolean withAvatar) throws Exception {
+        String password = "password-" + username;
+        expectOk(api.post("/api/users/register", null, Map.of(
+            "username", username,
+            "password", password,
+            "email", username + "@example.com",
+            "firstName", "Load",
+            "lastName", "User",
+            "designation", "tester")), "register " + username);
+        JsonNode login = api.read(expectOk(api.post("/api/users/login", null,
+            Map.of("username", username, "password", password)), "login " + username));
+        TestUser user = new TestUser(login.get("id").asLong(), username, login.get("token").asText());
+        users.add(user);
+
+        for (int p = 0; p < config.postsPerUser(); p++) {
+            JsonNode post = api.read(expectOk(api.post("/api/posts?authorId=" + user.id(), user.token(), Map.of(
+                "title", "Project " + p + " by " + username,
+                "description", "Load test project " + p,
+                "stack", "java",
+                "category", CATEGORIES[ThreadLocalRandom.current().nextInt(CATEGORIES.length)])), "post by " + username));
+            postIds.add(post.get("id").asLong());
+        }
+        if (withAvatar) {
+            expectOk(api.upload("/api/profile/upload", user.token(), "avatar.png", "image/png", avatar()), "avatar of " + username);
+            avatarUsers.add(username);
+        }
+    }
+
+    private static HttpResponse<byte[]> expectOk(HttpResponse<byte[]> response, String what) {
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Setup failed (" + what + "): HTTP " + response.statusCode());
+        }
+        return response;
+    }
+
+    // A small PNG with a random colour, so avatars are distinct blobs
+    private static byte[] avatar() throws IOException {
+        BufferedImage image = new BufferedImage(128, 128, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(ThreadLocalRandom.current().nextInt(0xFFFFFF)));
+        graphics.fillRect(0, 0, 128, 128);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.helloworld.load;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// One virtual thread per user, each looping over weighted random actions with a think time in
+// between (closed model). Latencies are recorded only for requests started after the warmup.
+final class TrafficRun {
+
+    static final String FEED = "feed";
+    static final String SWIPE = "swipe";
+    static final String CHAT_SEND = "chat-send";
+    static final String CHAT_POLL = "chat-poll";
+    static final String AVATAR = "avatar";
+
+    private static final String FIRST_CURSOR = "1970-01-01T00:00:00_0";
+
+    private final ApiClient api;
+    private final LoadTestConfig config;
+    private final Population population;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final String[] actions;
+    private final int[] cumulativeWeights;
+    // ETags of avatars already fetched, as a browser cache would keep them
+    private final Map<String, String> avatarETags = new ConcurrentHashMap<>();
+
+    private volatile long recordFrom;
+
+    TrafficRun(ApiClient api, LoadTestConfig config, Population population) {
+        this.api = api;
+        this.config = config;
+        this.population = population;
+        Map<String, Integer> mix = config.mix();
+        actions = mix.keySet().toArray(String[]::new);
+        cumulativeWeights = new int[actions.length];
+        int sum = 0;
+        for (int i = 0; i < actions.length; i++) {
+            if (!List.of(FEED, SWIPE, CHAT_SEND, CHAT_POLL, AVATAR).contains(actions[i])) {
+                throw new IllegalArgumentException("Unknown action in loadtest.mix: " + actions[i]);
+            }
+            sum += mix.get(actions[i]);
+            cumulativeWeights[i] = sum;
+            stats.put(actions[i], new EndpointStats(actions[i]));
+        }
+    }
+
+    Map<String, EndpointStats> execute() throws InterruptedException {
+        long start = System.nanoTime();
+        recordFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = recordFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Population.TestUser user : new ArrayList<>(population.users)) {
+                executor.submit(() -> new VirtualUser(user).run(end));
+            }
+        }
+        return stats;
+    }
+
+    private String pickAction() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return actions[i];
+            }
+        }
+        return actions[actions.length - 1];
+    }
+
+    private final class VirtualUser {
+        private final Population.TestUser user;
+        private final String partner;
+        private String feedCursor;
+        private String chatCursor = FIRST_CURSOR;
+
+        VirtualUser(Population.TestUser user) {
+            this.user = user;
+            List<Population.TestUser> users = population.users;
+            this.partner = users.get(ThreadLocalRandom.current().nextInt(users.size())).username();
+        }
+
+        void run(long end) {
+            while (System.nanoTime() < end) {
+                String action = pickAction();
+                long started = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = perform(action);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                if (started >= recordFrom) {
+                    EndpointStats endpoint = stats.get(action);
+                    endpoint.latency.record(System.nanoTime() - started);
+                    if (!ok) {
+                        endpoint.errors.increment();
+                    }
+                }
+                try {
+                    Thread.sleep(config.thinkTimeMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private boolean perform(String action) throws Exception {
+            return switch (action) {
+                case FEED -> feed();
+                case SWIPE -> swipe();
+                case CHAT_SEND -> chatSend();
+                case CHAT_POLL -> chatPoll();
+                case AVATAR -> avatar();
+                default -> throw new IllegalStateException(action);
+            };
+        }
+
+        // Next feed page; starts over once the user has seen everything
+        private boolean feed() throws Exception {
+            String path = "/api/posts/feed?userId=" + user.id() + "&limit=20"
+                + (feedCursor != null ? "&cursor=" + ApiClient.encode(feedCursor) : "");
+            HttpResponse<byte[]> response = api.get(path, user.token(), Map.of());
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            feedCursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+            return true;
+        }
+
+        private boolean swipe() throws Exception {
+            List<Long> posts = population.postIds;
+            long postId = posts.get(ThreadLocalRandom.current().nextInt(posts.size()));
+            String direction = ThreadLocalRandom.current().nextBoolean() ? "RIGHT" : "LEFT";
+            return api.post("/api/swipes?userId=" + user.id() + "&postId=" + postId + "&direction=" + direction,
+                user.token(), null).statusCode() == 200;
+        }
+
+        private boolean chatSend() throws Exception {
+            return api.post("/api/chat/messages", user.token(), Map.of(
+                "sender", user.username(),
+                "recipient", partner,
+                "content", "Hello from " + user.username() + " at " + System.currentTimeMillis())).statusCode() == 201;
+        }
+
+        // Polls the conversation forwards from the last message seen, as an open chat screen does
+        private boolean chatPoll() throws Exception {
+            String path = "/api/chat/messages/between?user1=" + ApiClient.encode(user.username())
+                + "&user2=" + ApiClient.encode(partner) + "&after=" + ApiClient.encode(chatCursor) + "&limit=50";
+            HttpResponse<byte[]> response = api.get(path, user.token(), Map.of());
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            response.headers().firstValue("X-Next-Cursor").ifPresent(next -> chatCursor = next);
+            return true;
+        }
+
+        // Conditional when the avatar was fetched before, so repeat views are 304s
+        private boolean avatar() throws Exception {
+            List<String> avatarUsers = population.avatarUsers;
+            if (avatarUsers.isEmpty()) {
+                return true;
+            }
+            String username = avatarUsers.get(ThreadLocalRandom.current().nextInt(avatarUsers.size()));
+            String etag = avatarETags.get(username);
+            HttpResponse<byte[]> response = api.get("/api/profile/" + ApiClient.encode(username) + "/profile-pic",
+                user.token(), etag != null ? Map.of("If-None-Match", etag) : Map.of());
+            response.headers().firstValue("ETag").ifPresent(value -> avatarETags.put(username, value));
+            return response.statusCode() == 200 || response.statusCode() == 304;
+        }
+    }
+}
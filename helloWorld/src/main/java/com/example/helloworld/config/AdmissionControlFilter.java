@@ -0,0 +1,118 @@
+package com.example.helloworld.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps in-flight /api requests relative to the connection pool. With virtual threads Tomcat no
+// longer limits concurrency, and every request beyond what the pool can serve would just queue in
+// Hikari until it times out; here the excess waits briefly and is then turned away with a 503.
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+
+    // 0 derives the limit from the pool: maximum-pool-size x requests-per-connection
+    @Value("${app.admission.max-concurrent-requests:0}")
+    private int maxConcurrentRequests;
+
+    @Value("${app.admission.requests-per-connection:4}")
+    private int requestsPerConnection;
+
+    @Value("${app.admission.queue-timeout-ms:200}")
+    private long queueTimeoutMs;
+
+    private Semaphore permits;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = poolSize();
+        int limit = maxConcurrentRequests > 0 ? maxConcurrentRequests : poolSize * requestsPerConnection;
+        permits = new Semaphore(limit, true);
+        rejected = Counter.builder("http.server.requests.rejected")
+            .description("Requests turned away by admission control")
+            .register(meterRegistry);
+        Gauge.builder("http.server.requests.admitted", () -> limit - permits.availablePermits())
+            .description("Requests currently admitted")
+            .register(meterRegistry);
+        log.info("Admission control {}: {} concurrent requests for a pool of {} connections",
+            enabled ? "on" : "off", limit, poolSize);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy, retry shortly\"}");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Streaming requests return here once async processing starts, so they do not hold a permit
+            permits.release();
+        }
+    }
+
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the connection pool size", e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
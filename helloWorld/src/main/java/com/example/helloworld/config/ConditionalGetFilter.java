@@ -0,0 +1,94 @@
+package com.example.helloworld.config;
+
+import com.example.helloworld.service.ResourceVersions;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Answers If-None-Match on the feed, inbox, user list and profiles with 304 Not Modified when the
+// in-memory version in ResourceVersions still matches, before the controller runs any query or
+// serializes anything. The controllers set the same ETag on full responses. Runs after Spring
+// Security, so only callers allowed to read the resource learn that it is unchanged.
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final String PROFILE_PREFIX = "/api/profile/";
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.IF_NONE_MATCH) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tag = currentTag(request);
+        if (tag != null && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), tag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, "\"" + tag + "\"");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String currentTag(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        switch (path) {
+            case "/api/posts/feed":
+                return withUserId(request, true);
+            case "/api/swipes/inbox":
+                return withUserId(request, false);
+            case "/api/users":
+                return resourceVersions.usersTag();
+            default:
+                break;
+        }
+        if (path.startsWith(PROFILE_PREFIX) && path.indexOf('/', PROFILE_PREFIX.length()) < 0) {
+            String username = UriUtils.decode(path.substring(PROFILE_PREFIX.length()), StandardCharsets.UTF_8);
+            return resourceVersions.knownProfileTag(username);
+        }
+        return null;
+    }
+
+    private String withUserId(HttpServletRequest request, boolean feed) {
+        try {
+            long userId = Long.parseLong(request.getParameter("userId"));
+            return feed ? resourceVersions.feedTag(userId) : resourceVersions.inboxTag(userId);
+        } catch (NumberFormatException e) {
+            return null; // Let the controller reject it
+        }
+    }
+
+    // If-None-Match is a comma-separated list of possibly weak tags; * is left to the controller
+    private static boolean matches(String ifNoneMatch, String tag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("\"" + tag + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.helloworld.config;
 
 import com.example.helloworld.service.JwtService;
-import com.example.helloworld.service.UserService;
+import com.example.helloworld.service.StreamTicketService;
+import com.example.helloworld.service.UserDetailsCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,30 +10,42 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // EventSource cannot send headers, so the chat stream also takes a ticket from StreamTicketService
+    private static final String STREAM_PATH = "/api/chat/stream";
+
     @Autowired
     private JwtService jwtService;
 
     @Autowired
-    private UserService userService;
+    private StreamTicketService streamTicketService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
+
+        if (authHeader == null && request.getParameter("ticket") != null
+                && request.getRequestURI().equals(request.getContextPath() + STREAM_PATH)) {
+            streamTicketService.redeem(request.getParameter("ticket"))
+                .ifPresent(username -> authenticate(username, request));
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,31 +53,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            jwt = authHeader.substring(7);
-            username = jwtService.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Check if user exists in database
-                var userOpt = userService.findByUsername(username);
-                if (userOpt.isPresent()) {
-                    var user = userOpt.get();
-                    
-                    // Validate token
-                    if (jwtService.validateToken(jwt, username)) {
-                        // Create authentication token
-                        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                                .username(user.getUsername())
-                                .password(user.getPassword())
-                                .authorities(new ArrayList<>())
-                                .build();
-                        
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    }
-                }
+            // Verified once per token; repeat tokens and known users are cache hits, and the
+            // revocation check is a bloom filter probe unless the token id may have been revoked
+            String username = jwtService.verify(authHeader.substring(7));
+
+            if (username != null) {
+                authenticate(username, request);
             }
         } catch (Exception e) {
             // Log the exception but don't fail the request
@@ -73,4 +67,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(String username, HttpServletRequest request) {
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
+        }
+        userDetailsCache.get(username).ifPresent(userDetails -> {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(detailsSource.buildDetails(request));
+
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        });
+    }
 }
@@ -1,5 +1,7 @@
 package com.example.helloworld.config;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -8,8 +10,10 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -25,6 +29,7 @@ public class SecurityConfig {
         "/v3/api-docs/**",
         "/api/users/register",
         "/api/users/login",
+        "/api/users/refresh",
         "/api/users/logout",
         "/api/users",
         "/api/posts/**",
@@ -38,9 +43,10 @@ public class SecurityConfig {
         "/api/chat/**"
     };
 
+    // Raising the strength takes effect for existing users at their next login, when their hash is upgraded
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     // Global CORS configuration
@@ -58,7 +64,7 @@ public class SecurityConfig {
                     )
                     .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                     .allowedHeaders("*")
-                    .exposedHeaders("Authorization")  // Expose Authorization header
+                    .exposedHeaders("Authorization", "X-Next-Cursor")  // Expose Authorization and pagination cursor headers
                     .allowCredentials(true)
                     .maxAge(3600);  // Cache preflight request for 1 hour
             }
@@ -70,10 +76,14 @@ public class SecurityConfig {
         http.cors(cors -> {})
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches (event streams) were already authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 // Public endpoints
                 .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
                 // Always allow preflight requests
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // Operational endpoints, for the users listed in app.admin.usernames
+                .requestMatchers(HttpMethod.POST, "/api/chat/search/rebuild").hasRole("ADMIN")
                 // Authenticated endpoints
                 .requestMatchers(AUTHENTICATED_ENDPOINTS).authenticated()
                 // Secure all other endpoints by default
@@ -82,6 +92,11 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
+            // Missing or expired access token: 401, which clients answer by refreshing and retrying.
+            // An authenticated caller without the required role still gets 403.
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
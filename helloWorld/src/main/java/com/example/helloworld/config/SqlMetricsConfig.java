@@ -0,0 +1,36 @@
+package com.example.helloworld.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Per-request SQL instrumentation: the primary Hikari pool is wrapped so every statement is counted,
+// and SqlMetricsInterceptor scopes the counts to controller calls.
+@Configuration
+public class SqlMetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private SqlMetricsInterceptor sqlMetricsInterceptor;
+
+    // Static so it is registered before the DataSource bean is created. Only the auto-configured
+    // "dataSource" pool is wrapped; any other DataSource bean is left as it is.
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourceWrapper() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource pool && "dataSource".equals(beanName)
+                    ? new SqlMetricsDataSource(pool) : bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlMetricsInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.helloworld.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Wraps the pool's connections in JDK proxies (Connection -> Statement -> ResultSet) that report
+// every executed statement, its JDBC time and every row read to SqlStatementRecorder.
+// Covers JPA and JdbcTemplate alike since both go through the same pool. unwrap() and
+// isWrapperFor() reach the pool itself, so its HikariDataSource settings stay readable.
+final class SqlMetricsDataSource extends DelegatingDataSource {
+
+    SqlMetricsDataSource(DataSource pool) {
+        super(pool);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private static Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return statement(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return statement(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return statement(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S statement(Class<S> type, S statement, String preparedSql) {
+        return proxy(type, statement, (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet resultSet ? resultSet(resultSet) : result;
+            }
+            String sql = preparedSql != null ? preparedSql
+                : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            SqlStatementRecorder.beforeStatement(sql);
+            long start = System.nanoTime();
+            try {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet resultSet ? resultSet(resultSet) : result;
+            } finally {
+                SqlStatementRecorder.afterStatement(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                SqlStatementRecorder.onRow();
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(SqlMetricsDataSource.class.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+}
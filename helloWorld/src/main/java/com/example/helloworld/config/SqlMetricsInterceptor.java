@@ -0,0 +1,119 @@
+package com.example.helloworld.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+// Opens a SqlStatementRecorder scope around each controller call and publishes, per endpoint,
+// the statement count, JDBC time and rows read as sql.request.* meters.
+// In strict mode a request over its budget fails once the handler returns, before its response is
+// written: StatementBudgetAdvice checks just ahead of a response body, postHandle covers handlers
+// that write none. JDBC calls are never interrupted, so the handler's transactions complete or roll
+// back on their own terms.
+@Component
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.sql.statement-budget:25}")
+    private int defaultBudget;
+
+    @Value("${app.sql.strict:false}")
+    private boolean strict;
+
+    @Value("${app.sql.repeat-threshold:10}")
+    private int repeatThreshold;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            SqlStatementRecorder.begin(endpoint(request), budget(handlerMethod), repeatThreshold);
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        // A committed response can no longer be turned into an error; afterCompletion still logs it
+        if (!response.isCommitted()) {
+            checkBudget();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementRecorder.Stats stats = SqlStatementRecorder.end();
+        if (stats == null) {
+            return;
+        }
+        String method = request.getMethod();
+        String uri = uriTag(request);
+        DistributionSummary.builder("sql.request.statements")
+            .description("SQL statements issued per request")
+            .tags("method", method, "uri", uri)
+            .register(meterRegistry)
+            .record(stats.statements());
+        Timer.builder("sql.request.time")
+            .description("Time spent in JDBC per request")
+            .tags("method", method, "uri", uri)
+            .register(meterRegistry)
+            .record(stats.jdbcNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("sql.request.rows")
+            .description("Result set rows read per request")
+            .tags("method", method, "uri", uri)
+            .register(meterRegistry)
+            .record(stats.rows());
+        if (stats.overBudget()) {
+            log.warn("{} issued {} SQL statements, budget is {}", stats.endpoint(), stats.statements(), stats.budget());
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming responses continue on other threads; stop recording on this one
+        SqlStatementRecorder.end();
+    }
+
+    // Strict mode: fails the current request if it has gone over its budget. Only the first check
+    // of a request counts, so an error response written for the failure is not failed again.
+    void checkBudget() {
+        SqlStatementRecorder.Stats stats = SqlStatementRecorder.current();
+        if (strict && stats != null && stats.markBudgetChecked() && stats.overBudget()) {
+            throw new StatementBudgetExceededException(stats.endpoint(), stats.budget(), stats.statements());
+        }
+    }
+
+    private int budget(HandlerMethod handlerMethod) {
+        StatementBudget budget = handlerMethod.getMethodAnnotation(StatementBudget.class);
+        if (budget == null) {
+            budget = handlerMethod.getBeanType().getAnnotation(StatementBudget.class);
+        }
+        return budget != null ? budget.value() : defaultBudget;
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        return request.getMethod() + " " + uriTag(request);
+    }
+
+    // The mapped pattern (/api/posts/user/{userId}) rather than the raw path, to keep tag cardinality bounded
+    private static String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.helloworld.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Per-request SQL counters, kept on the request thread between begin() and end().
+// Fed by the JDBC proxies in SqlMetricsDataSource; statements on other threads are not counted.
+public final class SqlStatementRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementRecorder.class);
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementRecorder() {}
+
+    public static void begin(String endpoint, int budget, int repeatThreshold) {
+        CURRENT.set(new Stats(endpoint, budget, repeatThreshold));
+    }
+
+    public static Stats end() {
+        Stats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    static void beforeStatement(String sql) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.onStatement(sql);
+        }
+    }
+
+    static void afterStatement(long nanos) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.jdbcNanos += nanos;
+        }
+    }
+
+    static void onRow() {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rows++;
+        }
+    }
+
+    public static final class Stats {
+        private final String endpoint;
+        private final int budget;
+        private final int repeatThreshold;
+        private final Map<String, Integer> executionsBySql = new HashMap<>();
+        private int statements;
+        private long jdbcNanos;
+        private long rows;
+        private boolean budgetChecked;
+
+        private Stats(String endpoint, int budget, int repeatThreshold) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+            this.repeatThreshold = repeatThreshold;
+        }
+
+        private void onStatement(String sql) {
+            statements++;
+            String key = sql != null ? sql : "<unknown>";
+            int executions = executionsBySql.merge(key, 1, Integer::sum);
+            if (executions == repeatThreshold) {
+                // Same statement over and over with different parameters: almost always a lazy load in a loop
+                log.warn("Possible N+1 on {}: executed {} times: {}", endpoint, executions, key);
+            }
+        }
+
+        public String endpoint() { return endpoint; }
+        public int budget() { return budget; }
+        public int statements() { return statements; }
+        public long jdbcNanos() { return jdbcNanos; }
+        public long rows() { return rows; }
+
+        public boolean overBudget() {
+            return budget > 0 && statements > budget;
+        }
+
+        // True the first time it is called for the request, so strict mode enforces the budget once
+        boolean markBudgetChecked() {
+            boolean first = !budgetChecked;
+            budgetChecked = true;
+            return first;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.helloworld.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Maximum number of SQL statements one request to the annotated endpoint may issue.
+// Endpoints without it get app.sql.statement-budget; 0 means no limit (bulk and admin operations).
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+    int value();
+}
@@ -0,0 +1,33 @@
+package com.example.helloworld.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Enforces strict statement budgets for @ResponseBody and ResponseEntity handlers. Their body is
+// written by the message converter before postHandle runs, so this checks just ahead of the write,
+// while the response can still become an error.
+@ControllerAdvice
+public class StatementBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private SqlMetricsInterceptor sqlMetricsInterceptor;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        sqlMetricsInterceptor.checkBudget();
+        return body;
+    }
+}
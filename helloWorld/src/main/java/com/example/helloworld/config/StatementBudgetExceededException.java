@@ -0,0 +1,14 @@
+package com.example.helloworld.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown in strict mode once the handler has returned, when its request issued more statements
+// than its budget allows; answered with a 500 in place of the handler's response
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String endpoint, int budget, int statements) {
+        super(endpoint + " issued " + statements + " SQL statements, budget is " + budget);
+    }
+}
@@ -1,16 +1,36 @@
 package com.example.helloworld.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+
 @Configuration
 public class StaticResourceConfig implements WebMvcConfigurer {
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDirName;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Serve files from the local "uploads" folder at http://localhost:9091/uploads/**
+        // (content-addressed images under /uploads/images are served by ImageController).
+        // Uploaded files are never rewritten in place, so name and size make a stable ETag and
+        // revalidation is answered with 304 instead of the file.
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/")
-                .setCachePeriod(3600);
+                .addResourceLocations("file:" + uploadDirName + "/")
+                .setCachePeriod(3600)
+                .setEtagGenerator(StaticResourceConfig::etag);
+    }
+
+    private static String etag(Resource resource) {
+        try {
+            return "\"" + resource.getFilename() + "-" + Long.toHexString(resource.contentLength()) + "\"";
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
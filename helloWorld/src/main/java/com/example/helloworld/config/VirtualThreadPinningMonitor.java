@@ -0,0 +1,88 @@
+package com.example.helloworld.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// In virtual-thread mode, watches the JFR jdk.VirtualThreadPinned event: a virtual thread that
+// blocks inside synchronized (or native code) holds its carrier thread. Each distinct stack is
+// logged once and every occurrence is counted in jvm.threads.virtual.pinned.
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 12;
+    private static final int MAX_DISTINCT_STACKS = 1000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMs;
+
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        if (!virtualThreads) {
+            return;
+        }
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads pinned to their carrier longer than the threshold")
+            .register(meterRegistry);
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, event -> {
+                pinned.increment();
+                report(event);
+            });
+            stream.startAsync();
+        } catch (RuntimeException e) {
+            log.warn("Virtual thread pinning detection unavailable: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        String stack = event.getStackTrace().getFrames().stream()
+            .limit(STACK_DEPTH)
+            .map(VirtualThreadPinningMonitor::frame)
+            .collect(Collectors.joining("\n\tat "));
+        if (reportedStacks.size() < MAX_DISTINCT_STACKS && reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
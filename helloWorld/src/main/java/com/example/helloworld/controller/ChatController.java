@@ -1,23 +1,93 @@
 package com.example.helloworld.controller;
 
+import com.example.helloworld.config.StatementBudget;
+import com.example.helloworld.model.ChatCursor;
 import com.example.helloworld.model.ChatMessage;
+import com.example.helloworld.model.ChatPage;
+import com.example.helloworld.model.Conversation;
+import com.example.helloworld.model.ConversationPage;
+import com.example.helloworld.service.ChatHub;
+import com.example.helloworld.service.ChatSearchIndex;
 import com.example.helloworld.service.ChatService;
+import com.example.helloworld.service.ConversationService;
+import com.example.helloworld.service.StreamTicketService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/chat")
 public class ChatController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private ChatHub chatHub;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private StreamTicketService streamTicketService;
+
+    // Server-sent event stream of the caller's new messages. On reconnect the browser sends
+    // Last-Event-ID (or the client passes ?after=<cursor>) and missed messages are replayed first.
+    // Authenticated by bearer token or, for a browser EventSource, by ?ticket= from /stream/ticket.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal UserDetails userDetails,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(required = false) String after) {
+        ChatCursor resumeFrom = cursor(lastEventId != null ? lastEventId : after);
+        return chatHub.subscribe(userDetails.getUsername(), resumeFrom);
+    }
+
+    // Single-use ticket that opens one /stream connection within expiresIn seconds. A ticket is
+    // spent by the connection, so a client reconnecting by hand asks for a new one.
+    @PostMapping("/stream/ticket")
+    public Map<String, Object> streamTicket(@AuthenticationPrincipal UserDetails userDetails) {
+        return Map.of(
+            "ticket", streamTicketService.issue(userDetails.getUsername()),
+            "expiresIn", streamTicketService.getTtlSeconds());
+    }
+
+    // The caller's inbox: one entry per chat partner, most recent first, paged with ?before=<cursor>
+    @StatementBudget(1)
+    @GetMapping("/conversations")
+    public ResponseEntity<List<Conversation>> fetchConversations(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "" + ConversationService.DEFAULT_PAGE_SIZE) int limit) {
+        ConversationPage page = conversationService.getInbox(userDetails.getUsername(), cursor(before), limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.conversations());
+    }
+
+    @PostMapping("/conversations/{peer}/read")
+    public ResponseEntity<Void> markConversationRead(@AuthenticationPrincipal UserDetails userDetails,
+                                                     @PathVariable String peer) {
+        boolean updated = conversationService.markRead(userDetails.getUsername(), peer);
+        return updated ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
     @PostMapping("/messages")
     public ResponseEntity<ChatMessage> createMessage(@RequestBody ChatMessage message) {
         try {
@@ -30,23 +100,36 @@ public class ChatController {
         }
     }
 
+    // History endpoints are cursor-paginated: "before" pages backwards from a cursor (default: newest
+    // message), "after" pages forwards. The cursor for the next page is returned in X-Next-Cursor.
+    @StatementBudget(1)
     @GetMapping("/messages/user/{username}")
-    public ResponseEntity<List<ChatMessage>> fetchUserMessages(@PathVariable String username) {
-        List<ChatMessage> userMessages = chatService.getMessagesByUser(username);
-        return ResponseEntity.ok(userMessages);
+    public ResponseEntity<List<ChatMessage>> fetchUserMessages(
+            @PathVariable String username,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + ChatService.DEFAULT_PAGE_SIZE) int limit) {
+        return pageResponse(chatService.getMessagesByUser(username, cursor(before), cursor(after), limit));
     }
 
+    @StatementBudget(1)
     @GetMapping("/messages/between")
     public ResponseEntity<List<ChatMessage>> fetchConversation(
             @RequestParam String user1,
-            @RequestParam String user2) {
-        List<ChatMessage> conversation = chatService.getMessagesBetweenUsers(user1, user2);
-        return ResponseEntity.ok(conversation);
+            @RequestParam String user2,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + ChatService.DEFAULT_PAGE_SIZE) int limit) {
+        return pageResponse(chatService.getMessagesBetweenUsers(user1, user2, cursor(before), cursor(after), limit));
     }
 
+    @StatementBudget(1)
     @GetMapping("/messages")
-    public ResponseEntity<List<ChatMessage>> fetchAllMessages() {
-        return ResponseEntity.ok(chatService.getAllMessages());
+    public ResponseEntity<List<ChatMessage>> fetchAllMessages(
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + ChatService.DEFAULT_PAGE_SIZE) int limit) {
+        return pageResponse(chatService.getAllMessages(cursor(before), cursor(after), limit));
     }
 
     @GetMapping("/messages/{id}")
@@ -55,9 +138,14 @@ public class ChatController {
         return found.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @StatementBudget(1)
     @GetMapping("/messages/sender/{sender}")
-    public ResponseEntity<List<ChatMessage>> fetchBySender(@PathVariable String sender) {
-        return ResponseEntity.ok(chatService.getMessagesBySender(sender));
+    public ResponseEntity<List<ChatMessage>> fetchBySender(
+            @PathVariable String sender,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + ChatService.DEFAULT_PAGE_SIZE) int limit) {
+        return pageResponse(chatService.getMessagesBySender(sender, cursor(before), cursor(after), limit));
     }
 
     @GetMapping("/messages/recent/{limit}")
@@ -65,9 +153,24 @@ public class ChatController {
         return ResponseEntity.ok(chatService.getRecentMessages(limit));
     }
 
+    // Ranked search over the caller's conversations: terms, prefix* and "quoted phrases"
+    @StatementBudget(1)
     @GetMapping("/messages/search")
-    public ResponseEntity<List<ChatMessage>> searchByContent(@RequestParam String keyword) {
-        return ResponseEntity.ok(chatService.searchMessages(keyword));
+    public ResponseEntity<List<ChatMessage>> searchByContent(@AuthenticationPrincipal UserDetails userDetails,
+                                                             @RequestParam String keyword,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(chatService.searchMessages(userDetails.getUsername(), keyword, page, size));
+    }
+
+    // Rebuild the search index from the database in the background; admins only (SecurityConfig)
+    @StatementBudget(0)
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildSearchIndex() {
+        boolean started = chatSearchIndex.rebuildInBackground();
+        return started
+            ? ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("message", "Search index rebuild started"))
+            : ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Rebuild already in progress"));
     }
 
     @DeleteMapping("/messages/{id}")
@@ -85,4 +188,21 @@ public class ChatController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> onBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
+    private static ChatCursor cursor(String value) {
+        return value == null || value.isBlank() ? null : ChatCursor.parse(value);
+    }
+
+    private static ResponseEntity<List<ChatMessage>> pageResponse(ChatPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.messages());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.helloworld.controller;
+
+import com.example.helloworld.service.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Serves uploaded post images. URLs carry the content hash of the original, so responses are
+// cacheable for a year and marked immutable; files uploaded before ImageStore existed are still
+// served from /uploads/** by StaticResourceConfig.
+@RestController
+@RequestMapping("/uploads/images")
+public class ImageController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @GetMapping("/{hash}")
+    public ResponseEntity<Resource> original(@PathVariable String hash) {
+        if (!imageStore.exists(hash)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(hash)
+                .cacheControl(IMMUTABLE)
+                .contentType(imageStore.contentType(hash))
+                .body(new FileSystemResource(imageStore.originalPath(hash)));
+    }
+
+    @GetMapping("/{hash}/w{width}.jpg")
+    public ResponseEntity<Resource> variant(@PathVariable String hash, @PathVariable int width) {
+        Path path = imageStore.variantPath(hash, width);
+        if (path == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(hash + "-w" + width)
+                .cacheControl(IMMUTABLE)
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(new FileSystemResource(path));
+    }
+}
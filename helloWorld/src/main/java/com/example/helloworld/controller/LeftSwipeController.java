@@ -1,10 +1,9 @@
 package com.example.helloworld.controller;
 
-import com.example.helloworld.model.LeftSwipe;
-import com.example.helloworld.model.Post;
-import com.example.helloworld.model.User;
+import com.example.helloworld.model.SwipeEvent;
 import com.example.helloworld.service.LeftSwipeService;
 import com.example.helloworld.service.PostService;
+import com.example.helloworld.service.SwipeBackPressureException;
 import com.example.helloworld.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,7 +14,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/left-swipes")
@@ -37,25 +35,22 @@ public class LeftSwipeController {
             Long postId = Long.valueOf(request.get("postId").toString());
             String timestampStr = request.get("timestamp").toString();
 
-            // Find user and post
-            Optional<User> userOpt = userService.findById(userId);
-            if (userOpt.isEmpty()) {
+            // Check user and post exist without loading them
+            if (!userService.existsById(userId)) {
                 return new ResponseEntity<>(Map.of("error", "User not found"), HttpStatus.NOT_FOUND);
             }
 
-            Optional<Post> postOpt = postService.findById(postId);
-            if (postOpt.isEmpty()) {
+            if (!postService.existsById(postId)) {
                 return new ResponseEntity<>(Map.of("error", "Post not found"), HttpStatus.NOT_FOUND);
             }
 
-            User user = userOpt.get();
-            Post post = postOpt.get();
-
             // Save left swipe
-            LeftSwipe leftSwipe = leftSwipeService.saveLeftSwipe(user, post);
+            SwipeEvent leftSwipe = leftSwipeService.saveLeftSwipe(userId, postId);
             
             return new ResponseEntity<>(leftSwipe, HttpStatus.CREATED);
             
+        } catch (SwipeBackPressureException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<>(Map.of("error", "Failed to create left swipe: " + e.getMessage()), 
                                      HttpStatus.INTERNAL_SERVER_ERROR);
@@ -65,13 +60,12 @@ public class LeftSwipeController {
     @GetMapping("/ids/{userId}")
     public ResponseEntity<?> getLeftSwipedPostIds(@PathVariable Long userId) {
         try {
-            Optional<User> userOpt = userService.findById(userId);
-            if (userOpt.isEmpty()) {
+            // Only the id is needed, so check the user exists without loading it
+            if (!userService.existsById(userId)) {
                 return new ResponseEntity<>(Map.of("error", "User not found"), HttpStatus.NOT_FOUND);
             }
 
-            User user = userOpt.get();
-            List<Long> leftSwipedIds = leftSwipeService.getLeftSwipedPostIds(user);
+            List<Long> leftSwipedIds = leftSwipeService.getLeftSwipedPostIds(userId);
             
             return new ResponseEntity<>(leftSwipedIds, HttpStatus.OK);
             
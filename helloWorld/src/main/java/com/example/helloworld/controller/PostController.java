@@ -1,11 +1,20 @@
 package com.example.helloworld.controller;
 
+import com.example.helloworld.config.ConditionalGetFilter;
+import com.example.helloworld.config.StatementBudget;
+import com.example.helloworld.model.FeedCursor;
+import com.example.helloworld.model.FeedPage;
 import com.example.helloworld.model.Post;
+import com.example.helloworld.model.PostView;
 import com.example.helloworld.model.User;
 import com.example.helloworld.service.PostService;
+import com.example.helloworld.service.ResourceVersions;
 import com.example.helloworld.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.List;
 
 @RestController
@@ -15,30 +24,65 @@ public class PostController {
     private PostService postService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private ResourceVersions resourceVersions;
 
 
     // Create a new post
     @PostMapping
-    public Post create(@RequestBody Post post, @RequestParam Long authorId) {
+    public PostView create(@RequestBody Post post, @RequestParam Long authorId) {
         User author = userService.findById(authorId).orElseThrow();
         post.setAuthor(author);
         // All fields should be set in frontend: title, description, stack, image, category
-        return postService.create(post);
+        return PostView.of(postService.create(post));
     }
 
     // Get all posts for a user (own posts)
+    @StatementBudget(2)
     @GetMapping("/user/{userId}")
-    public List<Post> getUserPosts(@PathVariable Long userId) {
-        User user = userService.findById(userId).orElseThrow();
-        return postService.findByAuthor(user);
+    public List<PostView> getUserPosts(@PathVariable Long userId) {
+        requireUser(userId);
+        return postService.findByAuthor(userId);
     }
 
+    // Feed is ranked per user (see FeedMaterializer), then continues with older posts from the
+    // database. It is paginated with an opaque cursor: pass the X-Next-Cursor of the previous page
+    // as ?cursor= to get the next one. Pages can be short or empty while the header is present;
+    // the feed is over once it is absent. The ETag is taken before reading, so a change made
+    // meanwhile gives the next request a new tag rather than hiding it.
+    @StatementBudget(6)
     @GetMapping("/feed")
-    public List<Post> feed(@RequestParam Long userId, @RequestParam(required = false) List<String> categories) {
-        User user = userService.findById(userId).orElseThrow();
-        if (categories == null || categories.isEmpty()) {
-            return postService.findUnswipedPostsForUser(user);
+    public ResponseEntity<List<PostView>> feed(@RequestParam Long userId,
+                                               @RequestParam(required = false) List<String> categories,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int limit) {
+        String etag = resourceVersions.feedTag(userId);
+        requireUser(userId);
+        FeedCursor position = feedCursor(cursor);
+        FeedPage page = categories == null || categories.isEmpty()
+            ? postService.findUnswipedPostsForUser(userId, position, limit)
+            : postService.findUnswipedPostsForUser(userId, categories, position, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(ConditionalGetFilter.REVALIDATE);
+        if (page.nextCursor() != null) {
+            response.header(ChatController.NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.posts());
+    }
+
+    private static FeedCursor feedCursor(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return FeedCursor.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private void requireUser(Long userId) {
+        if (!userService.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
         }
-        return postService.findUnswipedPostsForUser(user, categories);
     }
 }
\ No newline at end of file
@@ -1,17 +1,26 @@
 package com.example.helloworld.controller;
 
+import com.example.helloworld.config.ConditionalGetFilter;
 import com.example.helloworld.model.User;
+import com.example.helloworld.service.AvatarStore;
 import com.example.helloworld.service.ProfileService;
+import com.example.helloworld.service.ResourceVersions;
 import com.example.helloworld.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/profile")
 public class ProfileController {
@@ -22,11 +31,21 @@ public class ProfileController {
     @Autowired
     private UserService userService;
 
-    // Get profile of logged-in user
+    @Autowired
+    private AvatarStore avatarStore;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    // Get profile of logged-in user, tagged with the row version. Once served, revalidation is
+    // answered by ConditionalGetFilter; the first one after a restart is answered here.
     @GetMapping("/{username}")
     public ResponseEntity<?> getProfile(@PathVariable String username) {
         return profileService.getProfile(username)
-                .map(user -> ResponseEntity.ok(new ProfileDTO(user)))
+                .map(user -> ResponseEntity.ok()
+                        .eTag(resourceVersions.profileTag(user))
+                        .cacheControl(ConditionalGetFilter.REVALIDATE)
+                        .body(new ProfileDTO(user)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -47,18 +66,26 @@ public class ProfileController {
         return ResponseEntity.ok(new ProfileDTO(updatedUser));
     }
 
-    // Serve profile picture
+    // Serve profile picture, streamed from the avatar store. The content hash is the ETag,
+    // so If-None-Match gets a 304 and Range requests get a 206 without reading the whole file.
     @GetMapping("/{username}/profile-pic")
-    public ResponseEntity<byte[]> getProfilePic(@PathVariable String username) {
+    public ResponseEntity<Resource> getProfilePic(@PathVariable String username) {
         return profileService.getProfile(username)
-                .map(user -> {
-                    byte[] image = user.getProfilePic();
-                    if (image == null) return ResponseEntity.notFound().<byte[]>build();
-                    return ResponseEntity.ok()
-                            .header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                            .body(image);
-                })
-                .orElseGet(() -> ResponseEntity.notFound().<byte[]>build());
+                .map(User::getProfilePicHash)
+                .filter(avatarStore::exists)
+                .map(hash -> ResponseEntity.ok()
+                        .eTag(hash)
+                        .contentType(avatarStore.contentType(hash))
+                        .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                        .<Resource>body(new FileSystemResource(avatarStore.path(hash))))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Two edits of the same profile at once: the later one is rejected rather than overwriting
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> onConcurrentEdit(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Profile was changed by another request, reload and try again"));
     }
 
     // DTO to avoid exposing password
@@ -80,7 +107,10 @@ public class ProfileController {
             this.designation = user.getDesignation();
             this.bio = user.getBio();
             this.email = user.getEmail();
-            this.profilePicUrl = user.getProfilePic() != null ? "/api/profile/" + user.getUsername() + "/profile-pic" : null;
+            // Versioned by content hash so a new picture is never served from a stale cache
+            this.profilePicUrl = user.getProfilePicHash() != null
+                    ? "/api/profile/" + user.getUsername() + "/profile-pic?v=" + user.getProfilePicHash().substring(0, 12)
+                    : null;
         }
     }
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.example.helloworld.controller;
 
+import com.example.helloworld.config.ConditionalGetFilter;
+import com.example.helloworld.config.StatementBudget;
 import com.example.helloworld.model.*;
 import com.example.helloworld.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import java.time.LocalDateTime;
 
 @RestController
@@ -21,38 +27,47 @@ public class SwipeController {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     @PostMapping
-    public Swipe swipe(
+    public SwipeEvent swipe(
             @RequestParam Long userId,
             @RequestParam Long postId,
             @RequestParam Swipe.SwipeDirection direction,
             @RequestParam(required = false) String swipedAt // receive ISO string from frontend
     ) {
-        User user = userService.findById(userId).orElseThrow();
-        Post post = postService.findAll().stream()
-                .filter(p -> p.getId().equals(postId))
-                .findFirst()
-                .orElseThrow();
-
-        Swipe swipe = swipeService.swipe(user, post, direction);
+        // Existence checks only; the swipe is written by id so neither entity is loaded
+        if (!userService.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        if (!postService.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
 
         // Convert frontend string to LocalDateTime if provided
         LocalDateTime timestamp = swipedAt != null ? LocalDateTime.parse(swipedAt) : LocalDateTime.now();
-        swipe.setSwipedAt(timestamp);
 
-        return swipeService.save(swipe); // Save and return
+        return swipeService.swipe(userId, postId, direction, timestamp);
     }
 
+    @StatementBudget(2)
     @GetMapping("/inbox")
-    public List<Post> inbox(@RequestParam Long userId) {
-        User user = userService.findById(userId).orElseThrow();
-        return swipeService.getRightSwipedPosts(user)
-                .stream()
-                .map(swipe -> {
-                    Post post = swipe.getPost();
-                    post.setSwipedAt(swipe.getSwipedAt()); // attach swipe time to post
-                    return post;
-                })
-                .collect(Collectors.toList());
+    public ResponseEntity<List<PostView>> inbox(@RequestParam Long userId) {
+        String etag = resourceVersions.inboxTag(userId);
+        if (!userService.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ConditionalGetFilter.REVALIDATE)
+                .body(swipeService.getRightSwipedPosts(userId));
+    }
+
+    @ExceptionHandler(SwipeBackPressureException.class)
+    public ResponseEntity<Map<String, String>> onBackPressure(SwipeBackPressureException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
     }
 }
\ No newline at end of file
@@ -1,56 +1,57 @@
 package com.example.helloworld.controller;
 
+import com.example.helloworld.service.ImageProcessingRejectedException;
+import com.example.helloworld.service.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
-
-import jakarta.annotation.PostConstruct;
 
 import java.io.IOException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api")
 public class UploadController {
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDirName;
-
-    private Path uploadDir;
-
-    @PostConstruct
-    public void init() throws IOException {
-        uploadDir = Paths.get(uploadDirName);
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
-        }
-    }
+    @Autowired
+    private ImageStore imageStore;
 
+    // Post images: stored by content hash with resized variants, see ImageStore.
+    // Size limits are spring.servlet.multipart.max-file-size / max-request-size.
     @PostMapping(path = "/uploads", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public Map<String, String> upload(@RequestParam("file") MultipartFile file) throws IOException {
+    public Map<String, Object> upload(@RequestParam("file") MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("No file provided");
         }
-        String original = file.getOriginalFilename();
-        String storedName = UUID.randomUUID() + "_" + (original == null ? "file" : original.replaceAll("\\s+", "_"));
-        Path target = uploadDir.resolve(storedName);
-        Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
-
-        String encoded = URLEncoder.encode(storedName, StandardCharsets.UTF_8);
-        String imagePath = "/uploads/" + encoded; // relative path served by StaticResourceConfig
+        ImageStore.StoredImage image;
+        try (InputStream in = file.getInputStream()) {
+            image = imageStore.store(in);
+        }
 
-        Map<String, String> resp = new HashMap<>();
-        resp.put("imageUrl", imagePath);
-        resp.put("filename", storedName);
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("imageUrl", image.url());
+        resp.put("filename", image.hash());
+        resp.put("width", image.width());
+        resp.put("height", image.height());
+        resp.put("variants", image.variants());
         return resp;
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> onInvalidImage(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(ImageProcessingRejectedException.class)
+    public ResponseEntity<Map<String, String>> onBusy(ImageProcessingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
 }
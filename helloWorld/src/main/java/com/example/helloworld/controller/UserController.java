@@ -1,11 +1,18 @@
 package com.example.helloworld.controller;
 
+import com.example.helloworld.config.ConditionalGetFilter;
+import com.example.helloworld.config.StatementBudget;
 import com.example.helloworld.model.AuthRequest;
 import com.example.helloworld.model.User;
+import com.example.helloworld.model.UserSummary;
 import com.example.helloworld.service.AuthenticationService;
+import com.example.helloworld.service.CredentialVerificationRejectedException;
+import com.example.helloworld.service.InvalidRefreshTokenException;
 import com.example.helloworld.service.JwtService;
+import com.example.helloworld.service.ResourceVersions;
 import com.example.helloworld.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,12 +34,15 @@ public class UserController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     // Original registration endpoint - updated with better error handling
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
         try {
             User createdUser = userService.register(user);
-            return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
+            return new ResponseEntity<>(new ProfileController.ProfileDTO(createdUser), HttpStatus.CREATED);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
@@ -46,6 +56,11 @@ public class UserController {
         try {
             Map<String, Object> response = authenticationService.authenticate(authRequest);
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (CredentialVerificationRejectedException e) {
+            // Login storm: shed the request rather than queue more BCrypt work
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = Map.of("error", e.getMessage());
             return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
@@ -55,10 +70,24 @@ public class UserController {
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> body) {
+        try {
+            return new ResponseEntity<>(authenticationService.refresh(body.get("refreshToken")), HttpStatus.OK);
+        } catch (InvalidRefreshTokenException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    // Both tokens are optional; whichever is sent is revoked
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout() {
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) Map<String, String> body) {
         try {
-            Map<String, String> response = authenticationService.logout();
+            String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+            String refreshToken = body != null ? body.get("refreshToken") : null;
+            Map<String, String> response = authenticationService.logout(accessToken, refreshToken);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } catch (Exception e) {
             Map<String, String> errorResponse = Map.of("error", "Logout failed");
@@ -80,13 +109,11 @@ public class UserController {
             String token = authHeader.substring(7); // Remove "Bearer " prefix
             System.out.println("Extracted token: " + token);
             
-            // Extract username from token
-            String username = jwtService.extractUsername(token);
+            // Validate token (signature, expiry and revocation) and extract username
+            String username = jwtService.verify(token);
             System.out.println("Extracted username: " + username);
-            
-            // Validate token
-            if (jwtService.isTokenExpired(token)) {
-                System.out.println("Token is expired");
+            if (username == null) {
+                System.out.println("Token is expired or revoked");
                 return new ResponseEntity<>(Map.of("error", "Token expired"), HttpStatus.UNAUTHORIZED);
             }
             
@@ -99,7 +126,7 @@ public class UserController {
             
             User user = userOpt.get();
             System.out.println("Found user: " + user.getUsername() + " with email: " + user.getEmail());
-            return new ResponseEntity<>(user, HttpStatus.OK);
+            return new ResponseEntity<>(new ProfileController.ProfileDTO(user), HttpStatus.OK);
             
         } catch (Exception e) {
             System.out.println("Exception in /me endpoint: " + e.getMessage());
@@ -108,13 +135,15 @@ public class UserController {
         }
     }
 
+    @StatementBudget(1)
     @GetMapping("/search")
-    public ResponseEntity<?> searchUsers(@RequestParam String query) {
+    public ResponseEntity<?> searchUsers(@RequestParam String query,
+                                         @RequestParam(defaultValue = "10") int limit) {
         try {
             if (query == null || query.trim().isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Search query cannot be empty"));
             }
-            List<User> users = userService.searchUsers(query);
+            List<UserSummary> users = userService.searchUsers(query, limit);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -123,9 +152,11 @@ public class UserController {
     }
 
     // Fetch all users
+    @StatementBudget(1)
     @GetMapping("")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.findAllUsers();
-        return new ResponseEntity<>(users, HttpStatus.OK);
+    public ResponseEntity<List<UserSummary>> getAllUsers() {
+        String etag = resourceVersions.usersTag();
+        List<UserSummary> users = userService.findAllUsers();
+        return ResponseEntity.ok().eTag(etag).cacheControl(ConditionalGetFilter.REVALIDATE).body(users);
     }
 }
@@ -0,0 +1,34 @@
+package com.example.helloworld.model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Keyset position in chat history: (timestamp, id) of a message, encoded as "<ISO timestamp>_<id>"
+public record ChatCursor(LocalDateTime timestamp, Long id) {
+
+    // Sorts after / before every real message
+    public static final ChatCursor LATEST = new ChatCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    public static final ChatCursor EARLIEST = new ChatCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    public static ChatCursor of(ChatMessage message) {
+        return new ChatCursor(message.getTimestamp(), message.getId());
+    }
+
+    public static ChatCursor parse(String value) {
+        int separator = value == null ? -1 : value.lastIndexOf('_');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+        try {
+            return new ChatCursor(LocalDateTime.parse(value.substring(0, separator)),
+                                  Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "_" + id;
+    }
+}
@@ -4,11 +4,17 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+    @Index(name = "idx_chat_messages_sender_recipient_ts", columnList = "sender, recipient, timestamp, id"),
+    @Index(name = "idx_chat_messages_sender_ts", columnList = "sender, timestamp, id"),
+    @Index(name = "idx_chat_messages_recipient_ts", columnList = "recipient, timestamp, id"),
+    @Index(name = "idx_chat_messages_ts", columnList = "timestamp, id")
+})
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
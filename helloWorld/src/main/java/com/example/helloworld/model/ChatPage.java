@@ -0,0 +1,7 @@
+package com.example.helloworld.model;
+
+import java.util.List;
+
+// One page of chat messages; nextCursor continues in the same direction, null when there is nothing more
+public record ChatPage(List<ChatMessage> messages, String nextCursor) {
+}
@@ -0,0 +1,78 @@
+package com.example.helloworld.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One row per (owner, peer) pair: the owner's inbox entry for their chat with peer.
+// Maintained by ChatService alongside chat_messages, so the inbox is a single index range read.
+@Entity
+@Table(name = "conversations",
+    uniqueConstraints = @UniqueConstraint(name = "uk_conversations_owner_peer", columnNames = {"owner", "peer"}),
+    indexes = @Index(name = "idx_conversations_owner_last", columnList = "owner, last_message_at, last_message_id"))
+public class Conversation {
+
+    public static final int PREVIEW_LENGTH = 140;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversations_seq")
+    @SequenceGenerator(name = "conversations_seq", sequenceName = "conversations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private String peer;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    private String lastMessageSender;
+
+    @Column(length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @Column(nullable = false)
+    private int unreadCount;
+
+    public Conversation() {}
+
+    public Conversation(String owner, String peer) {
+        this.owner = owner;
+        this.peer = peer;
+    }
+
+    public static String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH - 1) + "…";
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public String getPeer() { return peer; }
+    public void setPeer(String peer) { this.peer = peer; }
+
+    public Long getLastMessageId() { return lastMessageId; }
+    public void setLastMessageId(Long lastMessageId) { this.lastMessageId = lastMessageId; }
+
+    public LocalDateTime getLastMessageAt() { return lastMessageAt; }
+    public void setLastMessageAt(LocalDateTime lastMessageAt) { this.lastMessageAt = lastMessageAt; }
+
+    public String getLastMessageSender() { return lastMessageSender; }
+    public void setLastMessageSender(String lastMessageSender) { this.lastMessageSender = lastMessageSender; }
+
+    public String getLastMessagePreview() { return lastMessagePreview; }
+    public void setLastMessagePreview(String lastMessagePreview) { this.lastMessagePreview = lastMessagePreview; }
+
+    public int getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(int unreadCount) { this.unreadCount = unreadCount; }
+}
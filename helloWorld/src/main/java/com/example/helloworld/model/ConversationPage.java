@@ -0,0 +1,7 @@
+package com.example.helloworld.model;
+
+import java.util.List;
+
+// One page of a user's inbox, most recent first; nextCursor is null on the last page
+public record ConversationPage(List<Conversation> conversations, String nextCursor) {
+}
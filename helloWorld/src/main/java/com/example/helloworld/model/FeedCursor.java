@@ -0,0 +1,38 @@
+package com.example.helloworld.model;
+
+// Position in a user's feed, opaque to clients. A feed session starts in the user's ranked feed when
+// one exists ("r<generation>_<position>": index into that generation of the ranked list) and moves on
+// to the database query once it is used up ("d<generation>_<post id>": keyset position in id order,
+// skipping what that ranked generation already served). Generation 0 is a database-only session.
+public record FeedCursor(boolean ranked, long generation, long position) {
+
+    public static FeedCursor ranked(long generation, long position) {
+        return new FeedCursor(true, generation, position);
+    }
+
+    public static FeedCursor database(long generation, long afterId) {
+        return new FeedCursor(false, generation, afterId);
+    }
+
+    public static FeedCursor parse(String value) {
+        int separator = value == null ? -1 : value.indexOf('_');
+        if (separator <= 1 || (value.charAt(0) != 'r' && value.charAt(0) != 'd')) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+        try {
+            long generation = Long.parseLong(value.substring(1, separator));
+            long position = Long.parseLong(value.substring(separator + 1));
+            if (generation < 0 || position < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+            return new FeedCursor(value.charAt(0) == 'r', generation, position);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (ranked ? "r" : "d") + generation + "_" + position;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.helloworld.model;
+
+import java.util.List;
+
+// One page of a user's feed; nextCursor is null once nothing is left. A page can come back short,
+// or even empty, while nextCursor is set: keep paging until it is null.
+public record FeedPage(List<PostView> posts, FeedCursor nextCursor) {
+}
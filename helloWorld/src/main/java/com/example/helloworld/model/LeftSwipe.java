@@ -4,16 +4,20 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "left_swipes")
+@Table(name = "left_swipes", indexes = {
+    @Index(name = "idx_left_swipes_user_post", columnList = "user_id, post_id"),
+    @Index(name = "idx_left_swipes_post", columnList = "post_id")
+})
 public class LeftSwipe {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "left_swipes_seq")
+    @SequenceGenerator(name = "left_swipes_seq", sequenceName = "left_swipes_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Post post;
 
     @Column(nullable = false)
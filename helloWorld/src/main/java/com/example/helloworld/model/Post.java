@@ -1,14 +1,25 @@
 package com.example.helloworld.model;
 
 import jakarta.persistence.*;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import java.time.LocalDateTime;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.util.Locale;
+
+// Cached in the "posts" second-level region; image is a file name, not the image bytes
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    @Index(name = "idx_posts_author", columnList = "author_id"),
+    @Index(name = "idx_posts_category_norm", columnList = "category_norm, id"),
+    @Index(name = "idx_posts_image", columnList = "image")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "posts")
 public class Post {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_seq")
+    @SequenceGenerator(name = "posts_seq", sequenceName = "posts_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -25,14 +36,18 @@ public class Post {
     @Column(nullable = false)
     private String category;
 
-    @ManyToOne
+    // category trimmed and lower-cased, kept alongside the value as entered for the category filter
+    @Column(name = "category_norm", nullable = false)
+    private String categoryNorm;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
 
-    // transient field for swipe timestamp (not persisted in DB)
-    @Transient
-    @JsonInclude(JsonInclude.Include.NON_NULL)
-    private LocalDateTime swipedAt;
+    // Optimistic lock; bumped on every update and used in ETags. Existing rows start at 0.
+    @Version
+    @ColumnDefault("0")
+    private long version;
 
     public Post() {}
 
@@ -42,10 +57,15 @@ public class Post {
         this.description = description;
         this.stack = stack;
         this.image = image;
-        this.category = category;
+        setCategory(category);
         this.author = author;
     }
 
+    // What categories are compared by: the category filter matches categoryNorm against this
+    public static String normalizeCategory(String category) {
+        return category == null ? null : category.trim().toLowerCase(Locale.ROOT);
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -63,11 +83,13 @@ public class Post {
     public void setImage(String image) { this.image = image; }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) {
+        this.category = category;
+        this.categoryNorm = normalizeCategory(category);
+    }
 
     public User getAuthor() { return author; }
     public void setAuthor(User author) { this.author = author; }
 
-    public LocalDateTime getSwipedAt() { return swipedAt; }
-    public void setSwipedAt(LocalDateTime swipedAt) { this.swipedAt = swipedAt; }
+    public long getVersion() { return version; }
 }
\ No newline at end of file
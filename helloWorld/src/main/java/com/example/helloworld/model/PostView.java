@@ -0,0 +1,28 @@
+package com.example.helloworld.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+// JSON shape of a post: the author as a UserSummary, and swipedAt only on inbox entries.
+// Built from a post whose author was fetched in the same query.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PostView(Long id,
+                       String title,
+                       String description,
+                       String stack,
+                       String image,
+                       String category,
+                       UserSummary author,
+                       LocalDateTime swipedAt) {
+
+    public static PostView of(Post post) {
+        return of(post, null);
+    }
+
+    public static PostView of(Post post, LocalDateTime swipedAt) {
+        UserSummary author = post.getAuthor() != null ? UserSummary.of(post.getAuthor()) : null;
+        return new PostView(post.getId(), post.getTitle(), post.getDescription(), post.getStack(),
+                post.getImage(), post.getCategory(), author, swipedAt);
+    }
+}
@@ -4,7 +4,12 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "swipes")
+@Table(name = "swipes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_swipes_user_post", columnNames = {"user_id", "post_id"})
+}, indexes = {
+    @Index(name = "idx_swipes_user_direction_post", columnList = "user_id, direction, post_id"),
+    @Index(name = "idx_swipes_post", columnList = "post_id")
+})
 public class Swipe {
 
     public enum SwipeDirection {
@@ -12,14 +17,15 @@ public class Swipe {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "swipes_seq")
+    @SequenceGenerator(name = "swipes_seq", sequenceName = "swipes_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", nullable = false)
     private Post post;
 
@@ -0,0 +1,7 @@
+package com.example.helloworld.model;
+
+import java.time.LocalDateTime;
+
+// A swipe as accepted by the ingestion pipeline; identifies user and post by id only
+public record SwipeEvent(Long userId, Long postId, Swipe.SwipeDirection direction, LocalDateTime swipedAt) {
+}
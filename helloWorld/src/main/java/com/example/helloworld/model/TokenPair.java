@@ -0,0 +1,5 @@
+package com.example.helloworld.model;
+
+// What login and refresh hand back: a short-lived access token and the refresh token to renew it
+public record TokenPair(String accessToken, String refreshToken, long expiresInSeconds) {
+}
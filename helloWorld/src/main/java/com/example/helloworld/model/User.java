@@ -1,12 +1,20 @@
 package com.example.helloworld.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
+// Cached in the "users" second-level region. Every mapped column is small; the profile picture
+// lives in AvatarStore and only its hash is part of the cached state.
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_profile_pic_hash", columnList = "profile_pic_hash"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -23,8 +31,14 @@ public class User {
     private String designation;
     private String bio;
 
-    @Lob
-    private byte[] profilePic;
+    // SHA-256 of the profile picture in AvatarStore; the image itself is not kept in this row
+    @Column(length = 64)
+    private String profilePicHash;
+
+    // Optimistic lock; bumped on every update and used in ETags. Existing rows start at 0.
+    @Version
+    @ColumnDefault("0")
+    private long version;
 
     public User() {}
 
@@ -53,6 +67,8 @@ public class User {
     public String getBio() { return bio; }
     public void setBio(String bio) { this.bio = bio; }
 
-    public byte[] getProfilePic() { return profilePic; }
-    public void setProfilePic(byte[] profilePic) { this.profilePic = profilePic; }
+    public String getProfilePicHash() { return profilePicHash; }
+    public void setProfilePicHash(String profilePicHash) { this.profilePicHash = profilePicHash; }
+
+    public long getVersion() { return version; }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.helloworld.model;
+
+// Public view of a user for search results and listings: no password or email
+public record UserSummary(Long id,
+                          String username,
+                          String firstName,
+                          String lastName,
+                          String designation,
+                          String bio,
+                          String profilePicUrl) {
+
+    public static UserSummary of(User user) {
+        String picUrl = user.getProfilePicHash() != null
+                ? "/api/profile/" + user.getUsername() + "/profile-pic?v=" + user.getProfilePicHash().substring(0, 12)
+                : null;
+        return new UserSummary(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                user.getDesignation(), user.getBio(), picUrl);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.helloworld.repository;
 
 import com.example.helloworld.model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,9 +16,6 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     // Find messages by sender
     List<ChatMessage> findBySender(String sender);
 
-    // Find messages by sender ordered by timestamp descending
-    List<ChatMessage> findBySenderOrderByTimestampDesc(String sender);
-
     // Find messages after a specific timestamp
     List<ChatMessage> findByTimestampAfter(LocalDateTime timestamp);
 
@@ -28,14 +26,55 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     @Query("SELECT m FROM ChatMessage m WHERE LOWER(m.content) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<ChatMessage> findByContentContaining(@Param("keyword") String keyword);
 
-    // Find all messages ordered by timestamp
-    List<ChatMessage> findAllByOrderByTimestampDesc();
+    // Keyset pages over (timestamp, id). "Before" pages walk backwards from the cursor (newest first),
+    // "after" pages walk forwards (oldest first). The page size comes from the Pageable. The bare
+    // timestamp bound is implied by the OR but gives the timestamp indexes a range to start from.
+
+    @Query("SELECT m FROM ChatMessage m " +
+           "WHERE m.timestamp <= :ts AND (m.timestamp < :ts OR (m.timestamp = :ts AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findPageBefore(@Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m " +
+           "WHERE m.timestamp >= :ts AND (m.timestamp > :ts OR (m.timestamp = :ts AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findPageAfter(@Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.sender = :sender " +
+           "AND m.timestamp <= :ts AND (m.timestamp < :ts OR (m.timestamp = :ts AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findBySenderPageBefore(@Param("sender") String sender,
+                                             @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.sender = :sender " +
+           "AND m.timestamp >= :ts AND (m.timestamp > :ts OR (m.timestamp = :ts AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findBySenderPageAfter(@Param("sender") String sender,
+                                            @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m " +
+           "WHERE ((m.sender = :user1 AND m.recipient = :user2) OR (m.sender = :user2 AND m.recipient = :user1)) " +
+           "AND m.timestamp <= :ts AND (m.timestamp < :ts OR (m.timestamp = :ts AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findBetweenUsersPageBefore(@Param("user1") String user1, @Param("user2") String user2,
+                                                 @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m " +
+           "WHERE ((m.sender = :user1 AND m.recipient = :user2) OR (m.sender = :user2 AND m.recipient = :user1)) " +
+           "AND m.timestamp >= :ts AND (m.timestamp > :ts OR (m.timestamp = :ts AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findBetweenUsersPageAfter(@Param("user1") String user1, @Param("user2") String user2,
+                                                @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
 
-    // Find messages between two users (bidirectional)
-    @Query("SELECT m FROM ChatMessage m WHERE (m.sender = :user1 AND m.recipient = :user2) OR (m.sender = :user2 AND m.recipient = :user1) ORDER BY m.timestamp ASC")
-    List<ChatMessage> findMessagesBetweenUsers(@Param("user1") String user1, @Param("user2") String user2);
+    @Query("SELECT m FROM ChatMessage m WHERE (m.sender = :username OR m.recipient = :username) " +
+           "AND m.timestamp <= :ts AND (m.timestamp < :ts OR (m.timestamp = :ts AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findByParticipantPageBefore(@Param("username") String username,
+                                                  @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
 
-    // Find all messages where user is sender or recipient
-@Query("SELECT m FROM ChatMessage m WHERE m.sender = :username OR m.recipient = :username ORDER BY m.timestamp ASC")
-List<ChatMessage> findBySenderOrRecipient(@Param("username") String username);
+    @Query("SELECT m FROM ChatMessage m WHERE (m.sender = :username OR m.recipient = :username) " +
+           "AND m.timestamp >= :ts AND (m.timestamp > :ts OR (m.timestamp = :ts AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessage> findByParticipantPageAfter(@Param("username") String username,
+                                                 @Param("ts") LocalDateTime ts, @Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,50 @@
+package com.example.helloworld.repository;
+
+import com.example.helloworld.model.Conversation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    Optional<Conversation> findByOwnerAndPeer(String owner, String peer);
+
+    // Inbox page, most recent conversation first, keyset-paginated on (lastMessageAt, lastMessageId).
+    // The lastMessageAt <= :ts bound is implied by the OR but gives idx_conversations_owner_last a range
+    @Query("SELECT c FROM Conversation c WHERE c.owner = :owner AND c.lastMessageId > 0 " +
+           "AND c.lastMessageAt <= :ts AND (c.lastMessageAt < :ts OR c.lastMessageId < :id) " +
+           "ORDER BY c.lastMessageAt DESC, c.lastMessageId DESC")
+    List<Conversation> findInboxPage(@Param("owner") String owner,
+                                     @Param("ts") LocalDateTime ts,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    // Points the conversation at an older message once its last one is deleted; a no-op when a
+    // newer message has already replaced the deleted one
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessageId = :messageId, c.lastMessageAt = :ts, " +
+           "c.lastMessageSender = :sender, c.lastMessagePreview = :preview " +
+           "WHERE c.owner = :owner AND c.peer = :peer AND c.lastMessageId = :deletedId")
+    int repointLastMessage(@Param("owner") String owner,
+                           @Param("peer") String peer,
+                           @Param("deletedId") Long deletedId,
+                           @Param("messageId") Long messageId,
+                           @Param("ts") LocalDateTime ts,
+                           @Param("sender") String sender,
+                           @Param("preview") String preview);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.unreadCount = 0 WHERE c.owner = :owner AND c.peer = :peer")
+    int markRead(@Param("owner") String owner, @Param("peer") String peer);
+
+    // One side of a pair at a time: H2 has no index plan for the two pairs OR-ed together
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.owner = :owner AND c.peer = :peer")
+    int deleteByOwnerAndPeer(@Param("owner") String owner, @Param("peer") String peer);
+}
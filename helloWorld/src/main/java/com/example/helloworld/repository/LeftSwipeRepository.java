@@ -4,10 +4,16 @@ import com.example.helloworld.model.LeftSwipe;
 import com.example.helloworld.model.User;
 import com.example.helloworld.model.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
 public interface LeftSwipeRepository extends JpaRepository<LeftSwipe, Long> {
     List<LeftSwipe> findByUser(User user);
     Optional<LeftSwipe> findByUserAndPost(User user, Post post);
+
+    // Post ids only, without loading the swipe, user or post entities
+    @Query("SELECT l.post.id FROM LeftSwipe l WHERE l.user.id = :userId")
+    List<Long> findPostIdsByUserId(@Param("userId") Long userId);
 }
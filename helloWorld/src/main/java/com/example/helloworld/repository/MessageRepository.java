@@ -2,13 +2,19 @@ package com.example.helloworld.repository;
 
 import com.example.helloworld.model.Message;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    // fetch inbox by recipient username
-    List<Message> findByToUserUsernameOrderByCreatedAtDesc(String username);
+    // fetch inbox by recipient username, with both users in the same statement
+    @Query("SELECT m FROM Message m JOIN FETCH m.fromUser JOIN FETCH m.toUser t " +
+           "WHERE t.username = :username ORDER BY m.createdAt DESC")
+    List<Message> findByToUserUsernameOrderByCreatedAtDesc(@Param("username") String username);
 
-    // fetch sent messages by sender username
-    List<Message> findByFromUserUsernameOrderByCreatedAtDesc(String username);
+    // fetch sent messages by sender username, with both users in the same statement
+    @Query("SELECT m FROM Message m JOIN FETCH m.fromUser f JOIN FETCH m.toUser " +
+           "WHERE f.username = :username ORDER BY m.createdAt DESC")
+    List<Message> findByFromUserUsernameOrderByCreatedAtDesc(@Param("username") String username);
 }
\ No newline at end of file
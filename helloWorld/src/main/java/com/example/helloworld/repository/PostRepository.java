@@ -1,7 +1,52 @@
 package com.example.helloworld.repository;
 
 import com.example.helloworld.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
-}
\ No newline at end of file
+
+    @Query("SELECT p.id FROM Post p")
+    List<Long> findAllIds();
+
+    // [image url, number of posts using it] for images stored by ImageStore
+    @Query("SELECT p.image, COUNT(p) FROM Post p WHERE p.image LIKE '/uploads/images/%' GROUP BY p.image")
+    List<Object[]> countImageReferences();
+
+    // An author's own posts, with the author fetched in the same statement
+    @Query("SELECT p FROM Post p JOIN FETCH p.author a WHERE a.id = :authorId ORDER BY p.id ASC")
+    List<Post> findByAuthorIdWithAuthor(@Param("authorId") Long authorId);
+
+    // Newest posts with their authors; the ranked feed's candidate pool. An outer join so the
+    // planner keeps posts first and reads the page off the primary key; with an inner join H2
+    // starts from the smaller users table and sorts every post
+    @Query("SELECT p FROM Post p LEFT JOIN FETCH p.author a WHERE p.author IS NOT NULL ORDER BY p.id DESC")
+    List<Post> findNewestWithAuthor(Pageable pageable);
+
+    // Feed page: other authors' posts the user has not swiped (swipes or left_swipes), keyset-paginated by id
+    @Query("SELECT p FROM Post p JOIN FETCH p.author a " +
+           "WHERE a.id <> :userId AND p.id > :afterId " +
+           "AND NOT EXISTS (SELECT 1 FROM Swipe s WHERE s.user.id = :userId AND s.post.id = p.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM LeftSwipe l WHERE l.user.id = :userId AND l.post.id = p.id) " +
+           "ORDER BY p.id ASC")
+    List<Post> findFeedPage(@Param("userId") Long userId,
+                            @Param("afterId") Long afterId,
+                            Pageable pageable);
+
+    // Same as findFeedPage, restricted to the given categories (normalized with Post.normalizeCategory);
+    // compares the stored normalized column so the filter reads idx_posts_category_norm
+    @Query("SELECT p FROM Post p JOIN FETCH p.author a " +
+           "WHERE a.id <> :userId AND p.id > :afterId " +
+           "AND p.categoryNorm IN :categories " +
+           "AND NOT EXISTS (SELECT 1 FROM Swipe s WHERE s.user.id = :userId AND s.post.id = p.id) " +
+           "AND NOT EXISTS (SELECT 1 FROM LeftSwipe l WHERE l.user.id = :userId AND l.post.id = p.id) " +
+           "ORDER BY p.id ASC")
+    List<Post> findFeedPageInCategories(@Param("userId") Long userId,
+                                        @Param("afterId") Long afterId,
+                                        @Param("categories") Collection<String> categories,
+                                        Pageable pageable);
+}
@@ -4,10 +4,35 @@ import com.example.helloworld.model.Swipe;
 import com.example.helloworld.model.User;
 import com.example.helloworld.model.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
 public interface SwipeRepository extends JpaRepository<Swipe, Long> {
     List<Swipe> findByUserAndDirection(User user, Swipe.SwipeDirection direction);
+
+    // Swipes with their post and its author, for the inbox
+    @Query("SELECT s FROM Swipe s JOIN FETCH s.post p JOIN FETCH p.author " +
+           "WHERE s.user.id = :userId AND s.direction = :direction ORDER BY s.id ASC")
+    List<Swipe> findWithPostByUserIdAndDirection(@Param("userId") Long userId,
+                                                 @Param("direction") Swipe.SwipeDirection direction);
     Optional<Swipe> findByUserAndPost(User user, Post post);
-}
\ No newline at end of file
+
+    // Post ids only, without loading the swipe, user or post entities
+    @Query("SELECT s.post.id FROM Swipe s WHERE s.user.id = :userId AND s.direction = :direction")
+    List<Long> findPostIdsByUserIdAndDirection(@Param("userId") Long userId,
+                                               @Param("direction") Swipe.SwipeDirection direction);
+
+    // [category, swipe count] for the user's swipes in one direction
+    @Query("SELECT p.category, COUNT(s) FROM Swipe s JOIN s.post p " +
+           "WHERE s.user.id = :userId AND s.direction = :direction GROUP BY p.category")
+    List<Object[]> countByCategory(@Param("userId") Long userId,
+                                   @Param("direction") Swipe.SwipeDirection direction);
+
+    // [author id, swipe count] for the user's swipes in one direction
+    @Query("SELECT p.author.id, COUNT(s) FROM Swipe s JOIN s.post p " +
+           "WHERE s.user.id = :userId AND s.direction = :direction GROUP BY p.author.id")
+    List<Object[]> countByAuthor(@Param("userId") Long userId,
+                                 @Param("direction") Swipe.SwipeDirection direction);
+}
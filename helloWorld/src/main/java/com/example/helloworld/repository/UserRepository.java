@@ -1,22 +1,47 @@
 package com.example.helloworld.repository;
 
 import com.example.helloworld.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Served from the query cache (username -> id) and the users entity region when warm
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = "users-by-username")
+    })
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
+    // [avatar hash, number of users using it]
+    @Query("SELECT u.profilePicHash, COUNT(u) FROM User u WHERE u.profilePicHash IS NOT NULL GROUP BY u.profilePicHash")
+    List<Object[]> countProfilePicReferences();
+
+    // Keyset scan by id, used to build the search index
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Substring scan; only used until UserSearchIndex has been built
     @Query("SELECT u FROM User u WHERE " +
            "LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(u.designation) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<User> searchUsers(@Param("query") String query);
+    List<User> searchUsers(@Param("query") String query, Pageable pageable);
+
+    // Replaces the password hash only if it is still the one that was verified, so a rehash on
+    // login never overwrites a password changed in the meantime
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
 }
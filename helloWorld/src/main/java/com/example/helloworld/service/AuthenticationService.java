@@ -1,13 +1,13 @@
 package com.example.helloworld.service;
 
 import com.example.helloworld.model.AuthRequest;
+import com.example.helloworld.model.TokenPair;
 import com.example.helloworld.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 @Service
 public class AuthenticationService {
@@ -18,25 +18,21 @@ public class AuthenticationService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     // Authenticate user and generate token
     public Map<String, Object> authenticate(AuthRequest authRequest) {
-        boolean isValid = userService.validateCredentials(
-            authRequest.getUsername(),
-            authRequest.getPassword()
-        );
-
-        if (!isValid) {
-            throw new RuntimeException("Invalid username or password");
-        }
-
-        // Generate JWT token
-        Optional<User> userOpt = userService.findByUsername(authRequest.getUsername());
-        User user = userOpt.get();
+        // One user load; BCrypt runs on the bounded verifier pool
+        User user = userService.authenticate(authRequest.getUsername(), authRequest.getPassword())
+            .orElseThrow(() -> new RuntimeException("Invalid username or password"));
 
-        String token = jwtService.generateToken(user.getUsername());
+        TokenPair tokens = refreshTokenService.issue(user);
 
     Map<String, Object> response = new HashMap<>();
-    response.put("token", token);
+    response.put("token", tokens.accessToken());
+    response.put("refreshToken", tokens.refreshToken());
+    response.put("expiresIn", tokens.expiresInSeconds());
     response.put("id", user.getId()); // Add user id to response
     response.put("username", user.getUsername());
     response.put("email", user.getEmail());
@@ -44,8 +40,22 @@ public class AuthenticationService {
     return response;
     }
 
-    // Logout (in stateless JWT, this is mainly for client-side token removal)
-    public Map<String, String> logout() {
+    // Exchange a refresh token for a new access token and a new refresh token
+    public Map<String, Object> refresh(String refreshToken) {
+        TokenPair tokens = refreshTokenService.rotate(refreshToken);
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", tokens.accessToken());
+        response.put("refreshToken", tokens.refreshToken());
+        response.put("expiresIn", tokens.expiresInSeconds());
+        return response;
+    }
+
+    // Logout: revokes the access token until it expires and the refresh token's whole family
+    public Map<String, String> logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            jwtService.revoke(accessToken);
+        }
+        refreshTokenService.revoke(refreshToken);
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logged out successfully");
         return response;
@@ -0,0 +1,65 @@
+package com.example.helloworld.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+
+// Profile pictures, stored by content hash under <upload dir>/avatars
+@Service
+public class AvatarStore {
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDirName;
+
+    private BlobStore blobs;
+
+    @PostConstruct
+    public void init() throws IOException {
+        blobs = new BlobStore(Paths.get(uploadDirName, "avatars"));
+    }
+
+    public String put(InputStream in) throws IOException {
+        return blobs.put(in);
+    }
+
+    public boolean exists(String hash) {
+        return blobs.exists(hash);
+    }
+
+    public Path path(String hash) {
+        return blobs.path(hash);
+    }
+
+    public List<String> hashes() throws IOException {
+        return blobs.hashes();
+    }
+
+    public Instant lastModified(String hash) throws IOException {
+        return blobs.lastModified(hash);
+    }
+
+    public void delete(String hash) throws IOException {
+        blobs.delete(hash);
+    }
+
+    // Sniffs the image type from the first bytes; falls back to JPEG
+    public MediaType contentType(String hash) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(blobs.path(hash)))) {
+            String type = URLConnection.guessContentTypeFromStream(in);
+            return type != null ? MediaType.parseMediaType(type) : MediaType.IMAGE_JPEG;
+        } catch (IOException e) {
+            return MediaType.IMAGE_JPEG;
+        }
+    }
+}
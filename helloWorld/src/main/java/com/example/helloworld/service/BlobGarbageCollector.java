@@ -0,0 +1,127 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.repository.PostRepository;
+import com.example.helloworld.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Deletes stored images and avatars nothing refers to any more. Reference counts are taken from
+// the rows that point at blobs (posts.image for ImageStore, users.profile_pic_hash for
+// AvatarStore) at the start of each run, rather than maintained on every write, so they cannot
+// drift. A blob is only deleted once it is unreferenced and older than grace-hours: an upload is
+// stored before the post or profile that uses it is saved, and storing the same bytes again
+// refreshes the blob's age.
+@Service
+public class BlobGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobGarbageCollector.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private AvatarStore avatarStore;
+
+    @Value("${app.blobs.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.blobs.gc.interval-hours:24}")
+    private long intervalHours;
+
+    @Value("${app.blobs.gc.grace-hours:24}")
+    private long graceHours;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "blob-gc");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::collectQuietly, intervalHours, intervalHours, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Returns the number of blobs deleted, or -1 when a run is already in progress
+    public int collect() throws IOException {
+        if (!running.tryLock()) {
+            return -1;
+        }
+        try {
+            Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+
+            Map<String, Long> imageRefs = new HashMap<>();
+            for (Object[] row : postRepository.countImageReferences()) {
+                String hash = ImageStore.hashOf((String) row[0]);
+                if (hash != null) {
+                    imageRefs.merge(hash, ((Number) row[1]).longValue(), Long::sum);
+                }
+            }
+            Map<String, Long> avatarRefs = new HashMap<>();
+            for (Object[] row : userRepository.countProfilePicReferences()) {
+                avatarRefs.put((String) row[0], ((Number) row[1]).longValue());
+            }
+
+            int deleted = 0;
+            for (String hash : imageStore.hashes()) {
+                if (!imageRefs.containsKey(hash) && imageStore.lastModified(hash).isBefore(cutoff)) {
+                    imageStore.delete(hash);
+                    deleted++;
+                }
+            }
+            for (String hash : avatarStore.hashes()) {
+                if (!avatarRefs.containsKey(hash) && avatarStore.lastModified(hash).isBefore(cutoff)) {
+                    avatarStore.delete(hash);
+                    deleted++;
+                }
+            }
+            log.info("Blob GC: {} images and {} avatars referenced, {} unreferenced blobs deleted",
+                imageRefs.size(), avatarRefs.size(), deleted);
+            return deleted;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void collectQuietly() {
+        try {
+            collect();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Blob GC failed", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.helloworld.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store. Blobs are named by the SHA-256 of their bytes and sharded
+ * into sub-directories by the first two hex digits, so identical content is stored once.
+ */
+public class BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public BlobStore(Path root) throws IOException {
+        this.root = root;
+        Files.createDirectories(root);
+    }
+
+    // Streams the content to disk while hashing it; returns the hash it is stored under
+    public String put(InputStream in) throws IOException {
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                in.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = path(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(temp, target);
+            } else {
+                // Stored before: refresh the modification time so garbage collection treats
+                // it as a new upload that may not be referenced yet
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public boolean exists(String hash) {
+        return isHash(hash) && Files.exists(path(hash));
+    }
+
+    public Path path(String hash) {
+        if (!isHash(hash)) {
+            throw new IllegalArgumentException("Not a blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    public Instant lastModified(String hash) throws IOException {
+        return Files.getLastModifiedTime(path(hash)).toInstant();
+    }
+
+    public boolean delete(String hash) throws IOException {
+        return Files.deleteIfExists(path(hash));
+    }
+
+    // Hashes of every stored blob; temp files and anything else in the tree are skipped
+    public List<String> hashes() throws IOException {
+        List<String> hashes = new ArrayList<>();
+        try (Stream<Path> shards = Files.list(root)) {
+            for (Path shard : (Iterable<Path>) shards::iterator) {
+                if (!Files.isDirectory(shard)) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(shard)) {
+                    files.map(file -> file.getFileName().toString())
+                        .filter(BlobStore::isHash)
+                        .forEach(hashes::add);
+                }
+            }
+        }
+        return hashes;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public static boolean isHash(String value) {
+        return value != null && HASH.matcher(value).matches();
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // Same content written concurrently
+            }
+        } catch (FileAlreadyExistsException ignored) {
+            // Same content written concurrently
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.ChatCursor;
+import com.example.helloworld.model.ChatMessage;
+import com.example.helloworld.repository.ChatMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-process fan-out of new chat messages to connected clients over server-sent events.
+// Each connection has a bounded send buffer drained by a shared sender pool; a connection that
+// falls behind gets a "resync" event and is closed, and the client reconnects with its last
+// event id to replay what it missed from the database.
+@Service
+public class ChatHub {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatHub.class);
+
+    static final String MESSAGE_EVENT = "message";
+    static final String RESYNC_EVENT = "resync";
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Value("${app.chat.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${app.chat.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.chat.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.chat.stream.max-replay:1000}")
+    private int maxReplay;
+
+    @Value("${app.chat.stream.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger senderThreadCount = new AtomicInteger();
+
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void start() {
+        if (virtualThreads) {
+            // A virtual thread per drain: a client on a slow socket no longer ties up a pool thread
+            senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("chat-hub-sender-", 1).factory());
+        } else {
+            senders = Executors.newFixedThreadPool(senderThreads, r -> {
+                Thread t = new Thread(r, "chat-hub-sender-" + senderThreadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chat-hub-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        connections.values().forEach(set -> set.forEach(c -> c.emitter.complete()));
+    }
+
+    // Opens a stream for the user. With a resume cursor, messages after it are replayed from the
+    // database before live delivery starts.
+    public SseEmitter subscribe(String username, ChatCursor resumeFrom) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(username, emitter, bufferSize);
+        // Registered before replaying so nothing published in between is missed
+        connections.computeIfAbsent(username, u -> ConcurrentHashMap.newKeySet()).add(connection);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        if (resumeFrom != null && !replay(connection, resumeFrom)) {
+            return emitter;
+        }
+        connection.live = true;
+        schedule(connection);
+        return emitter;
+    }
+
+    // Delivers a saved message to every stream of its recipient and sender
+    public void publish(ChatMessage message) {
+        deliver(message.getRecipient(), message);
+        if (message.getSender() != null && !message.getSender().equals(message.getRecipient())) {
+            deliver(message.getSender(), message);
+        }
+    }
+
+    public int connectionCount() {
+        return connections.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void deliver(String username, ChatMessage message) {
+        if (username == null) {
+            return;
+        }
+        Set<Connection> userConnections = connections.get(username);
+        if (userConnections == null) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            if (!connection.buffer.offer(message)) {
+                // Slow consumer: drop it and let the client resync from its last event id
+                resync(connection);
+            } else {
+                schedule(connection);
+            }
+        }
+    }
+
+    private boolean replay(Connection connection, ChatCursor from) {
+        ChatCursor cursor = from;
+        int replayed = 0;
+        while (true) {
+            List<ChatMessage> page = chatMessageRepository.findByParticipantPageAfter(
+                connection.username, cursor.timestamp(), cursor.id(), PageRequest.of(0, ChatService.DEFAULT_PAGE_SIZE));
+            for (ChatMessage message : page) {
+                if (!send(connection, message)) {
+                    return false;
+                }
+                connection.replayed.add(message.getId());
+            }
+            replayed += page.size();
+            if (page.size() < ChatService.DEFAULT_PAGE_SIZE) {
+                return true;
+            }
+            if (replayed >= maxReplay) {
+                // Too far behind to stream; the client should reload the conversation
+                resync(connection);
+                return false;
+            }
+            cursor = ChatCursor.of(page.get(page.size() - 1));
+        }
+    }
+
+    private void schedule(Connection connection) {
+        if (connection.live && connection.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(connection));
+            } catch (RuntimeException e) {
+                connection.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            ChatMessage message;
+            while ((message = connection.buffer.poll()) != null) {
+                // Published while the replay was reading it; each message is buffered once per connection
+                if (connection.replayed.remove(message.getId())) {
+                    continue;
+                }
+                if (!send(connection, message)) {
+                    return;
+                }
+            }
+        } finally {
+            connection.draining.set(false);
+        }
+        // A message may have arrived after the last poll but before the flag was cleared
+        if (!connection.buffer.isEmpty()) {
+            schedule(connection);
+        }
+    }
+
+    private boolean send(Connection connection, ChatMessage message) {
+        ChatCursor cursor = ChatCursor.of(message);
+        try {
+            connection.emitter.send(SseEmitter.event()
+                .id(cursor.toString())
+                .name(MESSAGE_EVENT)
+                .data(message));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            remove(connection);
+            return false;
+        }
+    }
+
+    private void resync(Connection connection) {
+        remove(connection);
+        try {
+            connection.emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(""));
+        } catch (IOException | IllegalStateException ignored) {
+            // Client already gone
+        }
+        connection.emitter.complete();
+    }
+
+    private void sendHeartbeats() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                try {
+                    connection.emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(connection);
+                }
+            }
+        }
+    }
+
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.username, (u, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static final class Connection {
+        private final String username;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChatMessage> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean live;
+        // Ids sent by the replay. Only these can also be in the buffer: messages commit out of
+        // cursor order, so anything else published live has not been sent, whatever its cursor.
+        private final Set<Long> replayed = ConcurrentHashMap.newKeySet();
+
+        private Connection(String username, SseEmitter emitter, int bufferSize) {
+            this.username = username;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.ChatCursor;
+import com.example.helloworld.model.ChatMessage;
+import com.example.helloworld.repository.ChatMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Inverted index over chat message content, partitioned by participant so a search only ever
+// touches the caller's own conversations. Supports plain terms, prefix terms (foo*) and quoted
+// phrases; all clauses must match. Results are ranked by tf-idf, newest first on ties.
+@Service
+public class ChatSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSearchIndex.class);
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern CLAUSE = Pattern.compile("\"([^\"]*)\"|(\\S+)");
+    private static final int MAX_PREFIX_EXPANSION = 256;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chat-search-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean ready;
+
+    // Guarded by lock
+    private Map<Long, Doc> docs = new HashMap<>();
+    private Map<String, UserPostings> postingsByUser = new HashMap<>();
+    private final Set<Long> removedWhileRebuilding = new HashSet<>();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(ChatMessage message) {
+        lock.writeLock().lock();
+        try {
+            addTo(docs, postingsByUser, message);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long messageId) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding.get()) {
+                removedWhileRebuilding.add(messageId);
+            }
+            Doc doc = docs.remove(messageId);
+            if (doc == null) {
+                return;
+            }
+            for (String participant : doc.participants()) {
+                UserPostings postings = postingsByUser.get(participant);
+                if (postings == null) {
+                    continue;
+                }
+                postings.docCount--;
+                for (String term : doc.tokens()) {
+                    Set<Long> ids = postings.terms.get(term);
+                    if (ids != null && ids.remove(messageId) && ids.isEmpty()) {
+                        postings.terms.remove(term);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ranked message ids matching the query within the user's conversations, one page at a time
+    public List<Long> search(String username, String query, int page, int size) {
+        List<Clause> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            UserPostings userPostings = postingsByUser.get(username);
+            if (userPostings == null) {
+                return List.of();
+            }
+            TreeMap<String, Set<Long>> postings = userPostings.terms;
+            int userDocCount = Math.max(1, userPostings.docCount);
+
+            Set<Long> candidates = null;
+            for (Clause clause : clauses) {
+                Set<Long> matches = clause.match(postings);
+                candidates = candidates == null ? matches : intersect(candidates, matches);
+                if (candidates.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Scored> scored = new ArrayList<>(candidates.size());
+            for (Long id : candidates) {
+                Doc doc = docs.get(id);
+                if (doc == null || !clauses.stream().allMatch(c -> c.verify(doc))) {
+                    continue;
+                }
+                double score = 0;
+                for (Clause clause : clauses) {
+                    score += clause.score(doc, postings, userDocCount);
+                }
+                scored.add(new Scored(doc, score));
+            }
+            scored.sort(Comparator.comparingDouble(Scored::score).reversed()
+                .thenComparing(s -> s.doc().timestamp(), Comparator.reverseOrder())
+                .thenComparing(s -> s.doc().id(), Comparator.reverseOrder()));
+
+            int from = Math.min(Math.max(page, 0) * size, scored.size());
+            int to = Math.min(from + size, scored.size());
+            return scored.subList(from, to).stream().map(s -> s.doc().id()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    // Rebuilds the whole index from chat_messages and swaps it in; returns false if one is already running
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            rebuildIndex();
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Same as rebuild, on a background thread; returns false if one is already running
+    public boolean rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    rebuildIndex();
+                } catch (RuntimeException e) {
+                    log.error("Chat search index rebuild failed", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            rebuilding.set(false);
+            throw e;
+        }
+    }
+
+    private void rebuildIndex() {
+        lock.writeLock().lock();
+        try {
+            removedWhileRebuilding.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Long, Doc> newDocs = new HashMap<>();
+        Map<String, UserPostings> newPostings = new HashMap<>();
+        ChatCursor cursor = ChatCursor.EARLIEST;
+        while (true) {
+            List<ChatMessage> page = chatMessageRepository.findPageAfter(
+                cursor.timestamp(), cursor.id(), PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (ChatMessage message : page) {
+                addTo(newDocs, newPostings, message);
+            }
+            if (page.size() < REBUILD_PAGE_SIZE) {
+                break;
+            }
+            cursor = ChatCursor.of(page.get(page.size() - 1));
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Messages saved while rebuilding went to the old index; carry them over
+            for (Doc doc : docs.values()) {
+                if (!newDocs.containsKey(doc.id()) && !doc.timestamp().isBefore(cursor.timestamp())) {
+                    addDoc(newDocs, newPostings, doc);
+                }
+            }
+            docs = newDocs;
+            postingsByUser = newPostings;
+            // Messages deleted while rebuilding may have been read before the delete
+            new ArrayList<>(removedWhileRebuilding).forEach(this::remove);
+            removedWhileRebuilding.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("Chat search index rebuilt with {} messages", newDocs.size());
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTo(Map<Long, Doc> docs, Map<String, UserPostings> postingsByUser, ChatMessage message) {
+        Set<String> participants = new HashSet<>();
+        if (message.getSender() != null) participants.add(message.getSender());
+        if (message.getRecipient() != null) participants.add(message.getRecipient());
+        Doc doc = new Doc(message.getId(), message.getTimestamp(),
+            tokenize(message.getContent()).toArray(String[]::new), participants.toArray(String[]::new));
+        addDoc(docs, postingsByUser, doc);
+    }
+
+    private static void addDoc(Map<Long, Doc> docs, Map<String, UserPostings> postingsByUser, Doc doc) {
+        if (docs.put(doc.id(), doc) != null) {
+            return;
+        }
+        for (String participant : doc.participants()) {
+            UserPostings postings = postingsByUser.computeIfAbsent(participant, u -> new UserPostings());
+            postings.docCount++;
+            for (String term : doc.tokens()) {
+                postings.terms.computeIfAbsent(term, t -> new HashSet<>()).add(doc.id());
+            }
+        }
+    }
+
+    private static Set<Long> intersect(Set<Long> a, Set<Long> b) {
+        Set<Long> smaller = a.size() <= b.size() ? a : b;
+        Set<Long> larger = smaller == a ? b : a;
+        Set<Long> result = new HashSet<>();
+        for (Long id : smaller) {
+            if (larger.contains(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        Matcher m = CLAUSE.matcher(query);
+        while (m.find()) {
+            if (m.group(1) != null) {
+                List<String> terms = tokenize(m.group(1));
+                if (terms.size() == 1) {
+                    clauses.add(new TermClause(terms.get(0)));
+                } else if (!terms.isEmpty()) {
+                    clauses.add(new PhraseClause(terms));
+                }
+            } else {
+                String raw = m.group(2);
+                boolean prefix = raw.endsWith("*");
+                List<String> terms = tokenize(prefix ? raw.substring(0, raw.length() - 1) : raw);
+                for (int i = 0; i < terms.size(); i++) {
+                    boolean last = i == terms.size() - 1;
+                    clauses.add(prefix && last ? new PrefixClause(terms.get(i)) : new TermClause(terms.get(i)));
+                }
+            }
+        }
+        return clauses;
+    }
+
+    private static double idf(int docCount, int docFrequency) {
+        return Math.log(1.0 + (double) docCount / Math.max(1, docFrequency));
+    }
+
+    private static int termFrequency(Doc doc, String term) {
+        int tf = 0;
+        for (String token : doc.tokens()) {
+            if (token.equals(term)) tf++;
+        }
+        return tf;
+    }
+
+    private interface Clause {
+        Set<Long> match(NavigableMap<String, Set<Long>> postings);
+        default boolean verify(Doc doc) { return true; }
+        double score(Doc doc, NavigableMap<String, Set<Long>> postings, int docCount);
+    }
+
+    private record TermClause(String term) implements Clause {
+        @Override
+        public Set<Long> match(NavigableMap<String, Set<Long>> postings) {
+            return postings.getOrDefault(term, Set.of());
+        }
+
+        @Override
+        public double score(Doc doc, NavigableMap<String, Set<Long>> postings, int docCount) {
+            return termFrequency(doc, term) * idf(docCount, postings.getOrDefault(term, Set.of()).size());
+        }
+    }
+
+    private record PrefixClause(String prefix) implements Clause {
+        @Override
+        public Set<Long> match(NavigableMap<String, Set<Long>> postings) {
+            Set<Long> result = new HashSet<>();
+            int expanded = 0;
+            for (Set<Long> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                result.addAll(ids);
+                if (++expanded >= MAX_PREFIX_EXPANSION) break;
+            }
+            return result;
+        }
+
+        @Override
+        public double score(Doc doc, NavigableMap<String, Set<Long>> postings, int docCount) {
+            double score = 0;
+            for (String token : doc.tokens()) {
+                if (token.startsWith(prefix)) {
+                    score += idf(docCount, postings.getOrDefault(token, Set.of()).size());
+                }
+            }
+            return score;
+        }
+    }
+
+    private record PhraseClause(List<String> terms) implements Clause {
+        @Override
+        public Set<Long> match(NavigableMap<String, Set<Long>> postings) {
+            Set<Long> result = null;
+            for (String term : terms) {
+                Set<Long> ids = postings.getOrDefault(term, Set.of());
+                result = result == null ? ids : intersect(result, ids);
+                if (result.isEmpty()) break;
+            }
+            return result;
+        }
+
+        @Override
+        public boolean verify(Doc doc) {
+            return occurrences(doc) > 0;
+        }
+
+        @Override
+        public double score(Doc doc, NavigableMap<String, Set<Long>> postings, int docCount) {
+            double idf = 0;
+            for (String term : terms) {
+                idf += idf(docCount, postings.getOrDefault(term, Set.of()).size());
+            }
+            // Phrases outrank the same words scattered through a message
+            return 2 * occurrences(doc) * idf;
+        }
+
+        private int occurrences(Doc doc) {
+            String[] tokens = doc.tokens();
+            int count = 0;
+            outer:
+            for (int i = 0; i + terms.size() <= tokens.length; i++) {
+                for (int j = 0; j < terms.size(); j++) {
+                    if (!tokens[i + j].equals(terms.get(j))) continue outer;
+                }
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private record Doc(Long id, LocalDateTime timestamp, String[] tokens, String[] participants) {
+    }
+
+    private static final class UserPostings {
+        private final TreeMap<String, Set<Long>> terms = new TreeMap<>();
+        private int docCount;
+    }
+
+    private record Scored(Doc doc, double score) {
+    }
+}
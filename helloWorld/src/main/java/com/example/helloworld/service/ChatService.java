@@ -1,22 +1,46 @@
 package com.example.helloworld.service;
 
+import com.example.helloworld.model.ChatCursor;
 import com.example.helloworld.model.ChatMessage;
+import com.example.helloworld.model.ChatPage;
 import com.example.helloworld.repository.ChatMessageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ChatService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private ChatMessageRepository chatMessageRepository;
 
+    @Autowired
+    private ChatHub chatHub;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    private ConversationService conversationService;
+
     // Save a new chat message
     public ChatMessage saveMessage(ChatMessage message) {
         if (message.getSender() == null || message.getSender().trim().isEmpty()) {
@@ -29,12 +53,20 @@ public class ChatService {
             throw new IllegalArgumentException("Message content cannot be null or empty");
         }
         message.setTimestamp(LocalDateTime.now());
-        return chatMessageRepository.save(message);
+        ChatMessage saved = chatMessageRepository.save(message);
+        conversationService.recordMessage(saved);
+        afterCommit(() -> {
+            chatSearchIndex.add(saved);
+            chatHub.publish(saved);
+        });
+        return saved;
     }
 
-    // Get all messages
-    public List<ChatMessage> getAllMessages() {
-        return chatMessageRepository.findAllByOrderByTimestampDesc();
+    // Get a page of all messages, newest first
+    public ChatPage getAllMessages(ChatCursor before, ChatCursor after, int limit) {
+        return page(before, after, limit, false,
+            (ts, id, p) -> chatMessageRepository.findPageBefore(ts, id, p),
+            (ts, id, p) -> chatMessageRepository.findPageAfter(ts, id, p));
     }
 
     // Get message by ID
@@ -42,31 +74,50 @@ public class ChatService {
         return chatMessageRepository.findById(id);
     }
 
-    // Get messages by sender
-    public List<ChatMessage> getMessagesBySender(String sender) {
-        return chatMessageRepository.findBySenderOrderByTimestampDesc(sender);
+    // Get a page of messages by sender, newest first
+    public ChatPage getMessagesBySender(String sender, ChatCursor before, ChatCursor after, int limit) {
+        return page(before, after, limit, false,
+            (ts, id, p) -> chatMessageRepository.findBySenderPageBefore(sender, ts, id, p),
+            (ts, id, p) -> chatMessageRepository.findBySenderPageAfter(sender, ts, id, p));
     }
 
-    // Get messages between two users (sender and recipient)
-    public List<ChatMessage> getMessagesBetweenUsers(String user1, String user2) {
-        return chatMessageRepository.findMessagesBetweenUsers(user1, user2);
+    // Get a page of messages between two users (sender and recipient), oldest first
+    public ChatPage getMessagesBetweenUsers(String user1, String user2, ChatCursor before, ChatCursor after, int limit) {
+        return page(before, after, limit, true,
+            (ts, id, p) -> chatMessageRepository.findBetweenUsersPageBefore(user1, user2, ts, id, p),
+            (ts, id, p) -> chatMessageRepository.findBetweenUsersPageAfter(user1, user2, ts, id, p));
     }
 
     // Get recent messages (last N messages)
     public List<ChatMessage> getRecentMessages(int limit) {
-        List<ChatMessage> allMessages = chatMessageRepository.findAllByOrderByTimestampDesc();
-        return allMessages.subList(0, Math.min(limit, allMessages.size()));
+        return chatMessageRepository.findPageBefore(ChatCursor.LATEST.timestamp(), ChatCursor.LATEST.id(), pageOf(limit));
     }
 
-    // Search messages by content
-    public List<ChatMessage> searchMessages(String keyword) {
-        return chatMessageRepository.findByContentContaining(keyword);
+    // Search the user's conversations; ranked by the in-memory index once it has been built
+    public List<ChatMessage> searchMessages(String username, String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (!chatSearchIndex.isReady()) {
+            // Index still building after startup: fall back to a scan
+            return chatMessageRepository.findByContentContaining(query).stream()
+                .filter(m -> username.equals(m.getSender()) || username.equals(m.getRecipient()))
+                .skip((long) Math.max(page, 0) * pageSize)
+                .limit(pageSize)
+                .toList();
+        }
+        List<Long> ids = chatSearchIndex.search(username, query, page, pageSize);
+        Map<Long, ChatMessage> byId = chatMessageRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(ChatMessage::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
     // Delete message by ID
     public boolean deleteMessage(Long id) {
-        if (chatMessageRepository.existsById(id)) {
-            chatMessageRepository.deleteById(id);
+        Optional<ChatMessage> message = chatMessageRepository.findById(id);
+        if (message.isPresent()) {
+            chatMessageRepository.delete(message.get());
+            chatMessageRepository.flush();
+            conversationService.onMessageDeleted(message.get());
+            afterCommit(() -> chatSearchIndex.remove(id));
             return true;
         }
         return false;
@@ -77,8 +128,56 @@ public class ChatService {
         return chatMessageRepository.findByTimestampAfter(timestamp);
     }
 
-    // Get all messages where user is sender or recipient
-public List<ChatMessage> getMessagesByUser(String username) {
-    return chatMessageRepository.findBySenderOrRecipient(username);
-}
+    // Get a page of messages where user is sender or recipient, oldest first
+    public ChatPage getMessagesByUser(String username, ChatCursor before, ChatCursor after, int limit) {
+        return page(before, after, limit, true,
+            (ts, id, p) -> chatMessageRepository.findByParticipantPageBefore(username, ts, id, p),
+            (ts, id, p) -> chatMessageRepository.findByParticipantPageAfter(username, ts, id, p));
+    }
+
+    // With an "after" cursor the page walks forwards from it; otherwise it walks backwards from
+    // "before" (or from the newest message). Messages are returned in the endpoint's natural order.
+    private ChatPage page(ChatCursor before, ChatCursor after, int limit, boolean ascending,
+                          KeysetQuery beforeQuery, KeysetQuery afterQuery) {
+        Pageable pageable = pageOf(limit);
+        boolean forwards = after != null;
+        List<ChatMessage> messages = forwards
+            ? afterQuery.find(after.timestamp(), after.id(), pageable)
+            : beforeQuery.find(before != null ? before.timestamp() : ChatCursor.LATEST.timestamp(),
+                               before != null ? before.id() : ChatCursor.LATEST.id(), pageable);
+
+        String nextCursor = null;
+        if (!messages.isEmpty() && (forwards || messages.size() == pageable.getPageSize())) {
+            // Forward pages always hand back a cursor so clients can poll for newer messages
+            nextCursor = ChatCursor.of(messages.get(messages.size() - 1)).toString();
+        }
+        if (forwards != ascending) {
+            messages = new ArrayList<>(messages);
+            Collections.reverse(messages);
+        }
+        return new ChatPage(messages, nextCursor);
+    }
+
+    // Runs the action once the surrounding transaction commits, or right away without one
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Pageable pageOf(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @FunctionalInterface
+    private interface KeysetQuery {
+        List<ChatMessage> find(LocalDateTime ts, Long id, Pageable pageable);
+    }
 }
@@ -0,0 +1,142 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.ChatCursor;
+import com.example.helloworld.model.ChatMessage;
+import com.example.helloworld.model.Conversation;
+import com.example.helloworld.model.ConversationPage;
+import com.example.helloworld.repository.ChatMessageRepository;
+import com.example.helloworld.repository.ConversationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// Maintains the conversations read model: one inbox row per participant of each chat,
+// holding the last message preview and the owner's unread count. Chat history from before the
+// read model existed is brought in by a migration (V6__backfill_conversations).
+@Service
+@Transactional
+public class ConversationService {
+
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // The preview columns only move to a newer message, so two messages committing out of order
+    // leave the later one in place; the unread count takes every message
+    private static final String NEWER =
+        "(t.last_message_at < s.ts OR (t.last_message_at = s.ts AND t.last_message_id < s.message_id))";
+
+    // A sequence value taken here is the top of a block Hibernate's pooled optimizer never hands
+    // out, so these ids cannot collide with conversations saved through the entity
+    private static final String H2_RECORD_SQL =
+        "MERGE INTO conversations t USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), " +
+        "CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(140)), CAST(? AS INTEGER))) " +
+        "s(owner, peer, message_id, ts, sender, preview, unread) " +
+        "ON t.owner = s.owner AND t.peer = s.peer " +
+        "WHEN MATCHED THEN UPDATE SET " +
+        "last_message_id = CASE WHEN " + NEWER + " THEN s.message_id ELSE t.last_message_id END, " +
+        "last_message_at = CASE WHEN " + NEWER + " THEN s.ts ELSE t.last_message_at END, " +
+        "last_message_sender = CASE WHEN " + NEWER + " THEN s.sender ELSE t.last_message_sender END, " +
+        "last_message_preview = CASE WHEN " + NEWER + " THEN s.preview ELSE t.last_message_preview END, " +
+        "unread_count = t.unread_count + s.unread " +
+        "WHEN NOT MATCHED THEN INSERT (id, owner, peer, last_message_id, last_message_at, last_message_sender, last_message_preview, unread_count) " +
+        "VALUES (NEXT VALUE FOR conversations_seq, s.owner, s.peer, s.message_id, s.ts, s.sender, s.preview, s.unread)";
+
+    private static final String ORACLE_RECORD_SQL =
+        "MERGE INTO conversations t USING (SELECT ? AS owner, ? AS peer, ? AS message_id, ? AS ts, ? AS sender, ? AS preview, ? AS unread FROM dual) s " +
+        "ON (t.owner = s.owner AND t.peer = s.peer) " +
+        "WHEN MATCHED THEN UPDATE SET " +
+        "t.last_message_id = CASE WHEN " + NEWER + " THEN s.message_id ELSE t.last_message_id END, " +
+        "t.last_message_at = CASE WHEN " + NEWER + " THEN s.ts ELSE t.last_message_at END, " +
+        "t.last_message_sender = CASE WHEN " + NEWER + " THEN s.sender ELSE t.last_message_sender END, " +
+        "t.last_message_preview = CASE WHEN " + NEWER + " THEN s.preview ELSE t.last_message_preview END, " +
+        "t.unread_count = t.unread_count + s.unread " +
+        "WHEN NOT MATCHED THEN INSERT (id, owner, peer, last_message_id, last_message_at, last_message_sender, last_message_preview, unread_count) " +
+        "VALUES (conversations_seq.NEXTVAL, s.owner, s.peer, s.message_id, s.ts, s.sender, s.preview, s.unread)";
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String recordSql;
+
+    @PostConstruct
+    public void init() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        recordSql = database != null && database.startsWith("Oracle") ? ORACLE_RECORD_SQL : H2_RECORD_SQL;
+    }
+
+    // Called in the transaction that saves the message, so both commit or neither does
+    public void recordMessage(ChatMessage message) {
+        String sender = message.getSender();
+        String recipient = message.getRecipient();
+        record(sender, recipient, message, 0);
+        if (!sender.equals(recipient)) {
+            record(recipient, sender, message, 1);
+        }
+    }
+
+    // Repoints both sides of the chat at the newest remaining message, or drops them if none is left
+    public void onMessageDeleted(ChatMessage message) {
+        String user1 = message.getSender();
+        String user2 = message.getRecipient();
+        List<ChatMessage> latest = chatMessageRepository.findBetweenUsersPageBefore(
+            user1, user2, ChatCursor.LATEST.timestamp(), ChatCursor.LATEST.id(), PageRequest.of(0, 1));
+        if (latest.isEmpty()) {
+            conversationRepository.deleteByOwnerAndPeer(user1, user2);
+            conversationRepository.deleteByOwnerAndPeer(user2, user1);
+            return;
+        }
+        ChatMessage last = latest.get(0);
+        String preview = Conversation.preview(last.getContent());
+        conversationRepository.repointLastMessage(user1, user2, message.getId(),
+            last.getId(), last.getTimestamp(), last.getSender(), preview);
+        conversationRepository.repointLastMessage(user2, user1, message.getId(),
+            last.getId(), last.getTimestamp(), last.getSender(), preview);
+    }
+
+    @Transactional(readOnly = true)
+    public ConversationPage getInbox(String owner, ChatCursor before, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ChatCursor from = before != null ? before : ChatCursor.LATEST;
+        List<Conversation> conversations = conversationRepository.findInboxPage(
+            owner, from.timestamp(), from.id(), PageRequest.of(0, size));
+        String nextCursor = null;
+        if (conversations.size() == size) {
+            Conversation last = conversations.get(size - 1);
+            nextCursor = new ChatCursor(last.getLastMessageAt(), last.getLastMessageId()).toString();
+        }
+        return new ConversationPage(conversations, nextCursor);
+    }
+
+    public boolean markRead(String owner, String peer) {
+        return conversationRepository.markRead(owner, peer) > 0;
+    }
+
+    // One upsert in the caller's transaction. Two first messages of a new pair can both miss the
+    // row; the one that loses on uk_conversations_owner_peer runs again and takes the update branch.
+    private void record(String owner, String peer, ChatMessage message, int unreadDelta) {
+        Object[] args = {
+            owner, peer, message.getId(), Timestamp.valueOf(message.getTimestamp()),
+            message.getSender(), Conversation.preview(message.getContent()), unreadDelta
+        };
+        try {
+            jdbcTemplate.update(recordSql, args);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(recordSql, args);
+        }
+    }
+}
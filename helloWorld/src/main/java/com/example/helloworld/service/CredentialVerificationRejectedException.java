@@ -0,0 +1,8 @@
+package com.example.helloworld.service;
+
+// Thrown when the credential verification pool is saturated or a login waits too long for it
+public class CredentialVerificationRejectedException extends RuntimeException {
+    public CredentialVerificationRejectedException(String message) {
+        super(message);
+    }
+}
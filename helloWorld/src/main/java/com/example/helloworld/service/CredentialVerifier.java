@@ -0,0 +1,110 @@
+package com.example.helloworld.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs BCrypt on a small dedicated pool so a burst of logins is capped at a few cores instead of
+// occupying every request thread. Work beyond the bounded queue is rejected straight away, and a
+// caller that waits longer than verify-timeout-ms gives up; both surface as
+// CredentialVerificationRejectedException so the login endpoint can answer 503 and the rest of the
+// API keeps its CPU.
+@Service
+public class CredentialVerifier {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // 0 = half the available processors
+    @Value("${app.auth.verify-threads:0}")
+    private int threads;
+
+    @Value("${app.auth.verify-queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.auth.verify-timeout-ms:2000}")
+    private long timeoutMs;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread t = new Thread(r, "credential-verifier-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // Checks the password against the stored hash. When it matches and the hash was made with a
+    // weaker work factor than the encoder is configured for, the result carries a fresh hash to
+    // store; the rehash happens on the same pool, still under the caller's timeout.
+    public Result verify(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return Result.MISMATCH;
+        }
+        return await(() -> {
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return Result.MISMATCH;
+            }
+            if (passwordEncoder.upgradeEncoding(encodedPassword)) {
+                return new Result(true, passwordEncoder.encode(rawPassword));
+            }
+            return Result.MATCH;
+        });
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new CredentialVerificationRejectedException("Too many logins in progress, try again shortly");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new CredentialVerificationRejectedException("Login timed out waiting for verification, try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CredentialVerificationRejectedException("Login interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // matches: whether the password was correct; rehash: a stronger hash to store, or null
+    public record Result(boolean matches, String rehash) {
+        static final Result MATCH = new Result(true, null);
+        static final Result MISMATCH = new Result(false, null);
+    }
+}
@@ -0,0 +1,454 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.FeedCursor;
+import com.example.helloworld.model.FeedPage;
+import com.example.helloworld.model.Post;
+import com.example.helloworld.model.PostView;
+import com.example.helloworld.model.Swipe;
+import com.example.helloworld.repository.PostRepository;
+import com.example.helloworld.repository.SwipeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Precomputed, ranked feeds. Background workers score the newest candidate-pool-size posts for
+// a user and keep the best candidates-per-user of them in a RankedFeed; PostService serves
+// unfiltered feed pages from it, skipping posts swiped since, so a feed request is a memory read.
+//
+// A post's score combines three signals:
+//   category - how much more often the user right-swipes its category than a uniform choice would
+//   author   - log of the user's right swipes on the author's posts
+//   recency  - halves every recency-half-life posts, counting back from the newest
+// Right swipes update the user's counts as they happen, and the feed is re-ranked in the
+// background after rerank-after-swipes right swipes, so ranking sharpens with use.
+//
+// Feeds are built on first request (that request is served from the database), when they run
+// low, when they are older than refresh-after-seconds, and after the post pool changes. Rebuilds
+// are only requested when a feed session starts (a request without a cursor): a session reads one
+// generation of the ranked list by position, and the rebuild fills the user's other buffer, so the
+// list never reorders under a scrolling user. Once the session's generation is used up, PostService
+// carries on with the database query, which also reaches posts outside the candidate pool.
+// Category-filtered requests always use the database query.
+@Service
+public class FeedMaterializer {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedMaterializer.class);
+
+    private static final double CATEGORY_WEIGHT = 1.0;
+    private static final double AUTHOR_WEIGHT = 0.5;
+    private static final double RECENCY_WEIGHT = 1.0;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private SwipeRepository swipeRepository;
+
+    @Autowired
+    private SwipeIndexService swipeIndexService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${app.feed.ranked.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.feed.candidates-per-user:500}")
+    private int candidatesPerUser;
+
+    @Value("${app.feed.candidate-pool-size:5000}")
+    private int candidatePoolSize;
+
+    @Value("${app.feed.recency-half-life:200}")
+    private double recencyHalfLife;
+
+    @Value("${app.feed.rerank-after-swipes:5}")
+    private int rerankAfterSwipes;
+
+    @Value("${app.feed.refresh-after-seconds:300}")
+    private long refreshAfterSeconds;
+
+    @Value("${app.feed.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${app.feed.workers:2}")
+    private int workers;
+
+    @Value("${app.feed.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private final ConcurrentHashMap<Long, UserFeed> feeds = new ConcurrentHashMap<>();
+    private final Set<Long> pendingBuilds = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock poolLock = new ReentrantLock();
+    private final AtomicInteger workerCount = new AtomicInteger();
+    // Shared by every user so a generation number is never reused, even after an eviction
+    private final AtomicLong generations = new AtomicLong();
+
+    private volatile CandidatePool pool;
+    private volatile boolean poolStale = true;
+    private ThreadPoolExecutor builders;
+
+    @PostConstruct
+    public void start() {
+        builders = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread t = new Thread(r, "feed-materializer-" + workerCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    @PreDestroy
+    public void stop() {
+        builders.shutdownNow();
+    }
+
+    // The next page of the user's ranked feed, or empty when there is no usable feed yet (a build
+    // is then queued and the caller should fall back to the database query). Without a cursor this
+    // starts a session on the newest generation; a cursor continues in its own generation, or from
+    // the top of the newest one if that generation has been replaced twice since. When the
+    // generation runs out the next cursor is a database cursor, and the page may be empty.
+    public Optional<FeedPage> page(Long userId, FeedCursor cursor, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        UserFeed feed = feeds.get(userId);
+        if (feed == null) {
+            requestBuild(userId);
+            return Optional.empty();
+        }
+        CandidatePool current = pool;
+        CandidatePool feedPool;
+        RankedFeed.Page slice;
+        FeedCursor next;
+        boolean rebuild;
+        feed.lock.lock();
+        try {
+            RankedFeed ranked = cursor != null ? feed.generation(cursor.generation()) : null;
+            int from = ranked != null ? (int) Math.min(cursor.position(), Integer.MAX_VALUE) : 0;
+            if (ranked == null) {
+                ranked = feed.current;
+            }
+            if (ranked == null) {
+                slice = null;
+                next = null;
+                feedPool = null;
+                rebuild = true;
+            } else {
+                feedPool = feed.poolOf(ranked);
+                slice = ranked.page(from, limit, postId -> swipeIndexService.hasSwiped(userId, postId));
+                next = slice.next() < ranked.filled()
+                    ? FeedCursor.ranked(ranked.generation(), slice.next())
+                    : FeedCursor.database(ranked.generation(), 0L);
+                rebuild = cursor == null && (ranked.remaining() < ranked.filled() / 4
+                    || feed.rightSwipesSinceBuild >= rerankAfterSwipes
+                    || feedPool != current
+                    || System.currentTimeMillis() - feed.builtAt > refreshAfterSeconds * 1000);
+            }
+        } finally {
+            feed.lock.unlock();
+        }
+        if (rebuild || (cursor == null && poolStale)) {
+            requestBuild(userId);
+        }
+        if (slice == null) {
+            return Optional.empty();
+        }
+        List<PostView> page = new ArrayList<>(slice.ids().size());
+        for (Long id : slice.ids()) {
+            Candidate candidate = feedPool.byId.get(id);
+            if (candidate != null) {
+                page.add(candidate.view);
+            }
+        }
+        return Optional.of(new FeedPage(page, next));
+    }
+
+    // Whether the given generation of the user's ranked feed contains the post, so the database
+    // part of a session can skip what the ranked part already served. False once that generation
+    // is gone; clients drop repeated posts by id.
+    public boolean wasRanked(Long userId, long generation, long postId) {
+        UserFeed feed = generation == 0 ? null : feeds.get(userId);
+        if (feed == null) {
+            return false;
+        }
+        feed.lock.lock();
+        try {
+            RankedFeed ranked = feed.generation(generation);
+            return ranked != null && ranked.contains(postId);
+        } finally {
+            feed.lock.unlock();
+        }
+    }
+
+    // Learns from the swipe straight away; the feed itself is re-ranked in the background
+    public void recordSwipe(Long userId, Long postId, Swipe.SwipeDirection direction) {
+        if (direction != Swipe.SwipeDirection.RIGHT) {
+            return;
+        }
+        UserFeed feed = feeds.get(userId);
+        CandidatePool current = pool;
+        if (feed == null || current == null) {
+            return;
+        }
+        Candidate candidate = current.byId.get(postId);
+        if (candidate == null) {
+            return;
+        }
+        feed.lock.lock();
+        try {
+            if (feed.preferences != null) {
+                feed.preferences.add(candidate.category, candidate.authorId);
+                feed.rightSwipesSinceBuild++;
+            }
+        } finally {
+            feed.lock.unlock();
+        }
+    }
+
+    // New posts join the pool at its next reload; every feed is rebuilt against the new pool
+    public void onPostCreated() {
+        poolStale = true;
+    }
+
+    private void requestBuild(Long userId) {
+        if (!pendingBuilds.add(userId)) {
+            return;
+        }
+        try {
+            builders.execute(() -> {
+                try {
+                    build(userId);
+                } catch (RuntimeException e) {
+                    log.warn("Feed build failed for user {}", userId, e);
+                } finally {
+                    pendingBuilds.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Workers are saturated; the user keeps the database feed until a later request
+            pendingBuilds.remove(userId);
+        }
+    }
+
+    void build(Long userId) {
+        CandidatePool current = currentPool();
+        UserFeed feed = feeds.get(userId);
+        if (feed == null) {
+            if (feeds.size() >= maxUsers) {
+                evictOne();
+            }
+            feed = feeds.computeIfAbsent(userId, id -> new UserFeed());
+        }
+
+        Preferences preferences;
+        feed.lock.lock();
+        try {
+            if (feed.preferences == null) {
+                feed.preferences = loadPreferences(userId);
+            }
+            preferences = feed.preferences.copy();
+        } finally {
+            feed.lock.unlock();
+        }
+
+        long[] ranked = rank(userId, current, preferences);
+
+        feed.lock.lock();
+        try {
+            // Refill the older buffer, so sessions on the current generation can finish reading it
+            RankedFeed target = feed.previous != null ? feed.previous : new RankedFeed(candidatesPerUser);
+            target.fill(ranked, generations.incrementAndGet());
+            feed.previous = feed.current;
+            feed.previousPool = feed.pool;
+            feed.current = target;
+            feed.pool = current;
+            feed.builtAt = System.currentTimeMillis();
+            feed.rightSwipesSinceBuild = 0;
+        } finally {
+            feed.lock.unlock();
+        }
+        resourceVersions.userContentChanged(userId);
+    }
+
+    // Top candidatesPerUser unswiped posts by other authors, best first
+    private long[] rank(Long userId, CandidatePool current, Preferences preferences) {
+        PriorityQueue<Scored> best = new PriorityQueue<>(candidatesPerUser + 1);
+        int categories = Math.max(1, current.categoryCount);
+        for (int age = 0; age < current.newestFirst.size(); age++) {
+            Candidate candidate = current.newestFirst.get(age);
+            if (candidate.authorId == userId || swipeIndexService.hasSwiped(userId, candidate.id)) {
+                continue;
+            }
+            double categoryLift = categories
+                * (preferences.categories.getOrDefault(candidate.category, 0) + 1.0)
+                / (preferences.total + categories);
+            double authorAffinity = Math.log1p(preferences.authors.getOrDefault(candidate.authorId, 0));
+            double recency = Math.pow(0.5, age / recencyHalfLife);
+            double score = CATEGORY_WEIGHT * categoryLift + AUTHOR_WEIGHT * authorAffinity + RECENCY_WEIGHT * recency;
+            best.add(new Scored(candidate.id, score));
+            if (best.size() > candidatesPerUser) {
+                best.poll();
+            }
+        }
+        long[] ranked = new long[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().postId;
+        }
+        return ranked;
+    }
+
+    private Preferences loadPreferences(Long userId) {
+        Preferences preferences = new Preferences();
+        for (Object[] row : swipeRepository.countByCategory(userId, Swipe.SwipeDirection.RIGHT)) {
+            preferences.addCategory((String) row[0], ((Number) row[1]).intValue());
+        }
+        for (Object[] row : swipeRepository.countByAuthor(userId, Swipe.SwipeDirection.RIGHT)) {
+            preferences.authors.merge((Long) row[0], ((Number) row[1]).intValue(), Integer::sum);
+        }
+        return preferences;
+    }
+
+    private CandidatePool currentPool() {
+        CandidatePool current = pool;
+        if (current != null && !poolStale && !isExpired(current)) {
+            return current;
+        }
+        poolLock.lock();
+        try {
+            if (pool == null || poolStale || isExpired(pool)) {
+                poolStale = false;
+                List<Post> posts = postRepository.findNewestWithAuthor(PageRequest.of(0, candidatePoolSize));
+                pool = new CandidatePool(posts);
+                log.debug("Loaded feed candidate pool of {} posts", posts.size());
+            }
+            return pool;
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    // Reloaded periodically too, so edited author profiles show up in the shared views
+    private boolean isExpired(CandidatePool candidatePool) {
+        return System.currentTimeMillis() - candidatePool.loadedAt > refreshAfterSeconds * 1000;
+    }
+
+    private void evictOne() {
+        Iterator<Long> it = feeds.keySet().iterator();
+        if (it.hasNext()) {
+            feeds.remove(it.next());
+        }
+    }
+
+    private static String normalizeCategory(String category) {
+        return category == null ? "" : Post.normalizeCategory(category);
+    }
+
+    // The newest posts with their rendered views, shared by every user's feed
+    private static final class CandidatePool {
+        private final List<Candidate> newestFirst;
+        private final Map<Long, Candidate> byId;
+        private final int categoryCount;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private CandidatePool(List<Post> posts) {
+            List<Candidate> candidates = new ArrayList<>(posts.size());
+            Map<Long, Candidate> index = new HashMap<>(posts.size() * 2);
+            Set<String> categories = new HashSet<>();
+            for (Post post : posts) {
+                Long authorId = post.getAuthor() != null ? post.getAuthor().getId() : null;
+                Candidate candidate = new Candidate(post.getId(), authorId != null ? authorId : -1L,
+                    normalizeCategory(post.getCategory()), PostView.of(post));
+                candidates.add(candidate);
+                index.put(candidate.id, candidate);
+                categories.add(candidate.category);
+            }
+            this.newestFirst = Collections.unmodifiableList(candidates);
+            this.byId = index;
+            this.categoryCount = categories.size();
+        }
+    }
+
+    private record Candidate(long id, long authorId, String category, PostView view) {
+    }
+
+    private record Scored(long postId, double score) implements Comparable<Scored> {
+        @Override
+        public int compareTo(Scored other) {
+            return Double.compare(score, other.score);
+        }
+    }
+
+    // Right-swipe counts per category and per author
+    private static final class Preferences {
+        private final Map<String, Integer> categories = new HashMap<>();
+        private final Map<Long, Integer> authors = new HashMap<>();
+        private int total;
+
+        private void add(String category, long authorId) {
+            addCategory(category, 1);
+            authors.merge(authorId, 1, Integer::sum);
+        }
+
+        private void addCategory(String category, int count) {
+            categories.merge(normalizeCategory(category), count, Integer::sum);
+            total += count;
+        }
+
+        private Preferences copy() {
+            Preferences copy = new Preferences();
+            copy.categories.putAll(categories);
+            copy.authors.putAll(authors);
+            copy.total = total;
+            return copy;
+        }
+    }
+
+    // The newest ranked generation and the one before it, each with the pool it was ranked from
+    private static final class UserFeed {
+        private final ReentrantLock lock = new ReentrantLock();
+        private RankedFeed current;
+        private RankedFeed previous;
+        private Preferences preferences;
+        private CandidatePool pool;
+        private CandidatePool previousPool;
+        private long builtAt;
+        private int rightSwipesSinceBuild;
+
+        private RankedFeed generation(long generation) {
+            if (current != null && current.generation() == generation) {
+                return current;
+            }
+            return previous != null && previous.generation() == generation ? previous : null;
+        }
+
+        private CandidatePool poolOf(RankedFeed ranked) {
+            return ranked == current ? pool : previousPool;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.helloworld.service;
+
+// Thrown when the image processing pool is saturated or an upload waits too long for its variants
+public class ImageProcessingRejectedException extends RuntimeException {
+    public ImageProcessingRejectedException(String message) {
+        super(message);
+    }
+}
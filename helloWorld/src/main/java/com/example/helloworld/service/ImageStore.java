@@ -0,0 +1,334 @@
+package com.example.helloworld.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Post images. The upload is streamed into a content-addressed BlobStore under <upload dir>/images,
+// its real type is checked from the bytes, and JPEG variants at each configured width are written
+// under <upload dir>/image-variants/<shard>/<hash>/w<width>.jpg by a small bounded worker pool.
+// Because every URL contains the hash of the original, they never change meaning and can be
+// cached by clients indefinitely.
+@Service
+public class ImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStore.class);
+
+    private static final String URL_PREFIX = "/uploads/images/";
+
+    private static final Set<String> ALLOWED_FORMATS = Set.of("jpeg", "png", "gif");
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDirName;
+
+    @Value("${app.images.variant-widths:320,640,1280}")
+    private List<Integer> variantWidths;
+
+    @Value("${app.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${app.images.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${app.images.workers:2}")
+    private int workers;
+
+    @Value("${app.images.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${app.images.process-timeout-ms:15000}")
+    private long processTimeoutMs;
+
+    private final AtomicInteger workerCount = new AtomicInteger();
+
+    private BlobStore originals;
+    private Path variantRoot;
+    private ThreadPoolExecutor processors;
+
+    @PostConstruct
+    public void init() throws IOException {
+        // Decode in memory; the default disk cache only adds temp files for what is already a file
+        ImageIO.setUseCache(false);
+        originals = new BlobStore(Paths.get(uploadDirName, "images"));
+        variantRoot = Paths.get(uploadDirName, "image-variants");
+        Files.createDirectories(variantRoot);
+        processors = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread t = new Thread(r, "image-processor-" + workerCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    @PreDestroy
+    public void stop() {
+        processors.shutdownNow();
+    }
+
+    // Stores an uploaded image and its variants. Rejects anything that is not a JPEG, PNG or GIF
+    // by content, or that decodes to more than max-pixels, with IllegalArgumentException.
+    public StoredImage store(InputStream in) throws IOException {
+        String hash = originals.put(in);
+        Path original = originals.path(hash);
+        ImageInfo info;
+        try {
+            info = inspect(original);
+        } catch (IllegalArgumentException e) {
+            Files.deleteIfExists(original);
+            throw e;
+        }
+        await(() -> {
+            writeVariants(hash, original);
+            return null;
+        });
+        Map<Integer, String> variants = new LinkedHashMap<>();
+        for (int width : variantWidths) {
+            variants.put(width, variantUrl(hash, width));
+        }
+        return new StoredImage(hash, originalUrl(hash), info.width(), info.height(), variants);
+    }
+
+    public boolean exists(String hash) {
+        return originals.exists(hash);
+    }
+
+    public Path originalPath(String hash) {
+        return originals.path(hash);
+    }
+
+    // Null when the hash or width is unknown
+    public Path variantPath(String hash, int width) {
+        if (!BlobStore.isHash(hash) || !variantWidths.contains(width)) {
+            return null;
+        }
+        Path path = variantDir(hash).resolve("w" + width + ".jpg");
+        return Files.exists(path) ? path : null;
+    }
+
+    public List<String> hashes() throws IOException {
+        return originals.hashes();
+    }
+
+    public Instant lastModified(String hash) throws IOException {
+        return originals.lastModified(hash);
+    }
+
+    // Removes the original and its variants
+    public void delete(String hash) throws IOException {
+        originals.delete(hash);
+        Path dir = variantDir(hash);
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // The hash in a URL returned by store(), or null for anything else (such as legacy uploads)
+    public static String hashOf(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String hash = url.substring(URL_PREFIX.length());
+        return BlobStore.isHash(hash) ? hash : null;
+    }
+
+    public MediaType contentType(String hash) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(originals.path(hash).toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (readers.hasNext()) {
+                return MediaType.parseMediaType(readers.next().getOriginatingProvider().getMIMETypes()[0]);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not sniff image type of {}", hash, e);
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    public static String originalUrl(String hash) {
+        return URL_PREFIX + hash;
+    }
+
+    public static String variantUrl(String hash, int width) {
+        return URL_PREFIX + hash + "/w" + width + ".jpg";
+    }
+
+    // Reads only the header: format and dimensions, before anything is decoded
+    private ImageInfo inspect(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Not an image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase();
+                if (!ALLOWED_FORMATS.contains(format)) {
+                    throw new IllegalArgumentException("Unsupported image type: " + format);
+                }
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image is too large: " + width + "x" + height);
+                }
+                return new ImageInfo(width, height);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unreadable image", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void writeVariants(String hash, Path original) throws IOException {
+        Path dir = variantDir(hash);
+        if (variantWidths.stream().allMatch(w -> Files.exists(dir.resolve("w" + w + ".jpg")))) {
+            return; // Same image uploaded before
+        }
+        BufferedImage source = ImageIO.read(original.toFile());
+        if (source == null) {
+            throw new IllegalArgumentException("Unreadable image");
+        }
+        Files.createDirectories(dir);
+        for (int width : variantWidths) {
+            Path target = dir.resolve("w" + width + ".jpg");
+            if (!Files.exists(target)) {
+                writeJpeg(resize(source, width), target);
+            }
+        }
+    }
+
+    // Scales down in halving steps for quality, never up; flattens transparency onto white
+    private static BufferedImage resize(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    // Written to a temp file and moved into place, so a reader never sees a partial variant
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp);
+                 ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(ios);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path variantDir(String hash) {
+        return variantRoot.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private <T> T await(Callable<T> task) throws IOException {
+        Future<T> future;
+        try {
+            future = processors.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ImageProcessingRejectedException("Too many images being processed, try again shortly");
+        }
+        try {
+            return future.get(processTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ImageProcessingRejectedException("Image processing timed out, try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingRejectedException("Image processing interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record ImageInfo(int width, int height) {
+    }
+
+    // What an upload returns: the original and its variants by width
+    public record StoredImage(String hash, String url, int width, int height, Map<Integer, String> variants) {
+    }
+}
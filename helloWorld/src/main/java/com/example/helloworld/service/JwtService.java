@@ -2,31 +2,125 @@ package com.example.helloworld.service;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
 
-    private static final String SECRET_KEY = "your-secret-key-here-should-be-at-least-256-bits-long-for-hmacsha256";
-    private static final long EXPIRATION_TIME = 86400000; // 24 hours in milliseconds
+    // Development default only, and public; set app.jwt.secret (at least 32 bytes) everywhere else
+    private static final String DEVELOPMENT_SECRET = "your-secret-key-here-should-be-at-least-256-bits-long-for-hmacsha256";
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    @Value("${app.jwt.secret:" + DEVELOPMENT_SECRET + "}")
+    private String secret;
+
+    @Autowired
+    private Environment environment;
+
+    // Access tokens are short-lived; clients renew them with a refresh token
+    @Value("${app.jwt.access-ttl-seconds:900}")
+    private long accessTtlSeconds;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    // Built once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Tokens that already passed signature and expiry checks, keyed by SHA-256 of the token
+    private final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.verified-cache-size:50000}")
+    private int verifiedCacheSize;
+
+    @PostConstruct
+    public void init() {
+        // Anyone could sign tokens with the development key; refuse to start with it in production
+        if (environment.matchesProfiles("prod") && DEVELOPMENT_SECRET.equals(secret)) {
+            throw new IllegalStateException("app.jwt.secret is the development key; set JWT_SECRET for the prod profile");
+        }
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     // Generate JWT token
     public String generateToken(String username) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTtlSeconds * 1000))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public long getAccessTtlSeconds() {
+        return accessTtlSeconds;
+    }
+
+    // Revokes a token until it expires. Tokens that are already invalid need nothing.
+    public void revoke(String token) {
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        if (claims.getId() != null && claims.getExpiration() != null) {
+            revocationList.revoke(claims.getId(), claims.getExpiration().getTime());
+        }
+        verifiedTokens.remove(cacheKey(token));
+    }
+
+    // Returns the subject of a valid, unexpired, unrevoked token, or null. The token is parsed at
+    // most once; later calls with the same token are a cache lookup plus a revocation probe.
+    public String verify(String token) {
+        String key = cacheKey(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return revocationList.isRevoked(cached.jti()) ? null : cached.username();
+            }
+            verifiedTokens.remove(key);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token); // rejects bad signatures and expired tokens
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        String username = claims.getSubject();
+        Date expiration = claims.getExpiration();
+        if (username == null || expiration == null || revocationList.isRevoked(claims.getId())) {
+            return null;
+        }
+        if (verifiedTokens.size() >= verifiedCacheSize) {
+            verifiedTokens.values().removeIf(t -> t.expiresAt() <= now);
+            if (verifiedTokens.size() >= verifiedCacheSize) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(key, new VerifiedToken(username, claims.getId(), expiration.getTime()));
+        return username;
+    }
+
     // Extract username from token
     public String extractUsername(String token) {
         return extractAllClaims(token).getSubject();
@@ -39,14 +133,22 @@ public class JwtService {
 
     // Validate token
     public boolean validateToken(String token, String username) {
-        return (username.equals(extractUsername(token)) && !isTokenExpired(token));
+        return username.equals(verify(token));
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private static String cacheKey(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(String username, String jti, long expiresAt) {
     }
 }
@@ -1,34 +1,36 @@
 package com.example.helloworld.service;
 
 import com.example.helloworld.model.LeftSwipe;
+import com.example.helloworld.model.Swipe;
+import com.example.helloworld.model.SwipeEvent;
 import com.example.helloworld.model.User;
-import com.example.helloworld.model.Post;
 import com.example.helloworld.repository.LeftSwipeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class LeftSwipeService {
     @Autowired
     private LeftSwipeRepository leftSwipeRepository;
 
-    public LeftSwipe saveLeftSwipe(User user, Post post) {
-        Optional<LeftSwipe> existing = leftSwipeRepository.findByUserAndPost(user, post);
-        if (existing.isPresent()) {
-            return existing.get(); // Already swiped left
-        }
-        LeftSwipe leftSwipe = new LeftSwipe(user, post, null);
-        return leftSwipeRepository.save(leftSwipe);
+    @Autowired
+    private SwipeService swipeService;
+
+    @Autowired
+    private SwipeIndexService swipeIndexService;
+
+    // Left swipes are written as LEFT rows in swipes; left_swipes is only read for older rows
+    public SwipeEvent saveLeftSwipe(Long userId, Long postId) {
+        return swipeService.swipe(userId, postId, Swipe.SwipeDirection.LEFT, null);
     }
 
     public List<LeftSwipe> getLeftSwipes(User user) {
         return leftSwipeRepository.findByUser(user);
     }
 
-    public List<Long> getLeftSwipedPostIds(User user) {
-        List<LeftSwipe> leftSwipes = getLeftSwipes(user);
-        return leftSwipes.stream().map(ls -> ls.getPost().getId()).toList();
+    // Served from the in-memory swipe index
+    public List<Long> getLeftSwipedPostIds(Long userId) {
+        return swipeIndexService.getLeftSwipedPostIds(userId);
     }
 }
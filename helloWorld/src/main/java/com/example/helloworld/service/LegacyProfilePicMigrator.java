@@ -0,0 +1,53 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+// Moves profile pictures still stored in the old users.profile_pic column into AvatarStore.
+// Does nothing on schemas that never had the column.
+@Component
+public class LegacyProfilePicMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyProfilePicMigrator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AvatarStore avatarStore;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            jdbcTemplate.query("SELECT id, profile_pic FROM users WHERE profile_pic IS NOT NULL", rs -> {
+                long id = rs.getLong("id");
+                byte[] bytes = rs.getBytes("profile_pic");
+                try {
+                    String hash = avatarStore.put(new ByteArrayInputStream(bytes));
+                    jdbcTemplate.update("UPDATE users SET profile_pic_hash = ?, profile_pic = NULL, version = version + 1 WHERE id = ?", hash, id);
+                    // Written behind Hibernate's back, so drop any cached copy of the row
+                    entityManagerFactory.getCache().evict(User.class, id);
+                    log.info("Moved profile picture of user {} to avatar store", id);
+                } catch (IOException e) {
+                    log.warn("Could not move profile picture of user {}", id, e);
+                }
+            });
+        } catch (DataAccessException e) {
+            log.debug("No legacy profile_pic column to migrate: {}", e.getMessage());
+        }
+    }
+}
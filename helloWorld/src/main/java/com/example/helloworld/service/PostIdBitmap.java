@@ -0,0 +1,230 @@
+package com.example.helloworld.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compressed set of post ids, laid out like a roaring bitmap: ids are split into a high key
+ * and a 16-bit low part. Each key owns a container that is a sorted char array while sparse
+ * and switches to a 65536-bit bitmap once it holds more than 4096 values.
+ *
+ * Not thread-safe; callers guard access.
+ */
+public class PostIdBitmap {
+
+    private static final int ARRAY_MAX_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final TreeMap<Long, Container> containers = new TreeMap<>();
+
+    public boolean add(long id) {
+        long key = id >>> 16;
+        Container container = containers.get(key);
+        if (container == null) {
+            container = new ArrayContainer();
+            containers.put(key, container);
+        }
+        boolean added = container.add((char) id);
+        if (added && container instanceof ArrayContainer array && array.size > ARRAY_MAX_SIZE) {
+            containers.put(key, array.toBitmap());
+        }
+        return added;
+    }
+
+    public boolean remove(long id) {
+        long key = id >>> 16;
+        Container container = containers.get(key);
+        if (container == null || !container.remove((char) id)) {
+            return false;
+        }
+        if (container.cardinality() == 0) {
+            containers.remove(key);
+        } else if (container instanceof BitmapContainer bitmap && bitmap.cardinality <= ARRAY_MAX_SIZE) {
+            containers.put(key, bitmap.toArray());
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        Container container = containers.get(id >>> 16);
+        return container != null && container.contains((char) id);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (Container container : containers.values()) {
+            total += container.cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return containers.isEmpty();
+    }
+
+    // Ids in ascending order
+    public List<Long> toList() {
+        List<Long> ids = new ArrayList<>(cardinality());
+        for (Map.Entry<Long, Container> entry : containers.entrySet()) {
+            entry.getValue().appendTo(entry.getKey() << 16, ids);
+        }
+        return ids;
+    }
+
+    // Approximate heap footprint of the containers, for sizing
+    public long sizeInBytes() {
+        long total = 0;
+        for (Container container : containers.values()) {
+            total += container.sizeInBytes() + 48; // tree entry + boxed key
+        }
+        return total;
+    }
+
+    private interface Container {
+        boolean add(char low);
+        boolean remove(char low);
+        boolean contains(char low);
+        int cardinality();
+        void appendTo(long base, List<Long> out);
+        long sizeInBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        public boolean add(char low) {
+            int i = Arrays.binarySearch(values, 0, size, low);
+            if (i >= 0) {
+                return false;
+            }
+            int insertAt = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_MAX_SIZE + 1));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = low;
+            size++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char low) {
+            int i = Arrays.binarySearch(values, 0, size, low);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public void appendTo(long base, List<Long> out) {
+            for (int i = 0; i < size; i++) {
+                out.add(base | values[i]);
+            }
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 16L + 2L * values.length;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words = new long[BITMAP_WORDS];
+        private int cardinality;
+
+        @Override
+        public boolean add(char low) {
+            long mask = 1L << low;
+            int word = low >>> 6;
+            if ((words[word] & mask) != 0) {
+                return false;
+            }
+            words[word] |= mask;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        public boolean remove(char low) {
+            long mask = 1L << low;
+            int word = low >>> 6;
+            if ((words[word] & mask) == 0) {
+                return false;
+            }
+            words[word] &= ~mask;
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void appendTo(long base, List<Long> out) {
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    out.add(base | ((long) w << 6) | bit);
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 16L + 8L * BITMAP_WORDS;
+        }
+
+        ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[Math.max(4, cardinality)];
+            appendLows(array);
+            return array;
+        }
+
+        private void appendLows(ArrayContainer array) {
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    array.values[array.size++] = (char) ((w << 6) | bit);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
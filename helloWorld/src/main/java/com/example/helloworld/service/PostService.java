@@ -1,20 +1,25 @@
 
 package com.example.helloworld.service;
 
+import com.example.helloworld.model.FeedCursor;
+import com.example.helloworld.model.FeedPage;
 import com.example.helloworld.model.Post;
+import com.example.helloworld.model.PostView;
 import com.example.helloworld.model.User;
 import com.example.helloworld.repository.PostRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import org.springframework.beans.factory.annotation.Qualifier;
-import com.example.helloworld.service.LeftSwipeService;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
 public class PostService {
+    public static final int MAX_FEED_PAGE_SIZE = 100;
+
     @Autowired
     private PostRepository postRepository;
 
@@ -22,10 +27,25 @@ public class PostService {
     private LeftSwipeService leftSwipeService;
 
     @Autowired
-    private SwipeService swipeService;
+    private SwipeIndexService swipeIndexService;
+
+    @Autowired
+    private FeedMaterializer feedMaterializer;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    // Ids of every post, so existence checks on the swipe path don't touch the posts table
+    private final PostIdBitmap knownPostIds = new PostIdBitmap();
+    private final ReentrantLock knownPostIdsLock = new ReentrantLock();
+    private volatile boolean knownPostIdsLoaded;
 
     public Post create(Post post) {
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        rememberPostId(saved.getId());
+        feedMaterializer.onPostCreated();
+        resourceVersions.postsChanged();
+        return saved;
     }
 
 
@@ -37,16 +57,38 @@ public class PostService {
         return postRepository.findById(id);
     }
 
+    // Existence check served from the in-memory id set; only unknown ids go to the database
+    public boolean existsById(Long id) {
+        if (id == null) {
+            return false;
+        }
+        loadKnownPostIds();
+        knownPostIdsLock.lock();
+        try {
+            if (knownPostIds.contains(id)) {
+                return true;
+            }
+        } finally {
+            knownPostIdsLock.unlock();
+        }
+        // Posts created by another instance since we loaded
+        if (postRepository.existsById(id)) {
+            rememberPostId(id);
+            return true;
+        }
+        return false;
+    }
+
     // Get posts by author (own posts)
-    public List<Post> findByAuthor(User author) {
-        return postRepository.findAll().stream()
-            .filter(post -> post.getAuthor() != null && post.getAuthor().getId().equals(author.getId()))
+    public List<PostView> findByAuthor(Long authorId) {
+        return postRepository.findByAuthorIdWithAuthor(authorId).stream()
+            .map(PostView::of)
             .toList();
     }
 
     // Get all posts for a user, excluding left-swiped posts
     public List<Post> findAllForUser(User user) {
-        List<Long> leftSwipedIds = leftSwipeService.getLeftSwipedPostIds(user);
+        List<Long> leftSwipedIds = leftSwipeService.getLeftSwipedPostIds(user.getId());
         if (leftSwipedIds.isEmpty()) {
             return postRepository.findAll();
         }
@@ -55,40 +97,84 @@ public class PostService {
             .toList();
     }
 
-    // Get posts not swiped (left or right) and not authored by user
-    public List<Post> findUnswipedPostsForUser(User user) {
-        List<Long> leftSwipedIds = leftSwipeService.getLeftSwipedPostIds(user);
-        List<Long> rightSwipedIds = swipeService.getRightSwipedPosts(user).stream().map(s -> s.getPost().getId()).toList();
-        return postRepository.findAll().stream()
-            .filter(post -> post.getAuthor() != null && !post.getAuthor().getId().equals(user.getId()))
-            .filter(post -> !leftSwipedIds.contains(post.getId()) && !rightSwipedIds.contains(post.getId()))
+    // Get a page of posts not swiped (left or right) and not authored by user. A session (null cursor)
+    // reads the user's ranked feed when it exists and then carries on in the database in id order,
+    // skipping the posts the ranked part served; until a ranked feed exists it is database-only.
+    public FeedPage findUnswipedPostsForUser(Long userId, FeedCursor cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        if (cursor == null || cursor.ranked()) {
+            Optional<FeedPage> ranked = feedMaterializer.page(userId, cursor, pageSize);
+            if (ranked.isPresent() && !ranked.get().posts().isEmpty()) {
+                return ranked.get();
+            }
+            // No ranked feed, or this session's generation is used up
+            cursor = ranked.map(FeedPage::nextCursor).orElse(null);
+        }
+        long generation = cursor != null ? cursor.generation() : 0L;
+        List<Post> rows = postRepository.findFeedPage(userId, afterId(cursor), PageRequest.of(0, pageSize));
+        List<PostView> posts = withoutSwiped(userId, rows).stream()
+            .filter(post -> !feedMaterializer.wasRanked(userId, generation, post.id()))
             .toList();
+        return new FeedPage(posts, nextCursor(rows, pageSize, generation));
     }
 
-    // Get posts not swiped (left or right), not authored by user, filtered by categories (case-insensitive)
-    public List<Post> findUnswipedPostsForUser(User user, List<String> categories) {
-        // Normalize categories to a lower-cased set for case-insensitive comparison
+    // Same as above, filtered by categories (case-insensitive); always served by the database
+    public FeedPage findUnswipedPostsForUser(Long userId, List<String> categories, FeedCursor cursor, int limit) {
+        // Normalized the way category_norm is, so the comparison is case-insensitive
         final Set<String> categorySet = (categories == null)
-            ? null
+            ? Set.of()
             : categories.stream()
                 .filter(s -> s != null && !s.isBlank())
-                .map(s -> s.trim().toLowerCase())
-                .collect(Collectors.collectingAndThen(Collectors.toSet(), set -> set.isEmpty() ? null : set));
+                .map(Post::normalizeCategory)
+                .collect(Collectors.toSet());
 
-        List<Long> leftSwipedIds = leftSwipeService.getLeftSwipedPostIds(user);
-        List<Long> rightSwipedIds = swipeService.getRightSwipedPosts(user).stream().map(s -> s.getPost().getId()).toList();
+        if (categorySet.isEmpty()) {
+            return findUnswipedPostsForUser(userId, cursor, limit);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        List<Post> rows = postRepository.findFeedPageInCategories(userId, afterId(cursor), categorySet, PageRequest.of(0, pageSize));
+        return new FeedPage(withoutSwiped(userId, rows), nextCursor(rows, pageSize, 0L));
+    }
 
-        return postRepository.findAll().stream()
-            // exclude own posts
-            .filter(post -> post.getAuthor() != null && !post.getAuthor().getId().equals(user.getId()))
-            // exclude already swiped
-            .filter(post -> !leftSwipedIds.contains(post.getId()) && !rightSwipedIds.contains(post.getId()))
-            // apply category filter if provided
-            .filter(post -> {
-                if (categorySet == null) return true;
-                String postCategory = post.getCategory();
-                return postCategory != null && categorySet.contains(postCategory.trim().toLowerCase());
-            })
+    // Checks the page against the swipe index, which also knows about swipes the query could not see yet
+    private List<PostView> withoutSwiped(Long userId, List<Post> page) {
+        return page.stream()
+            .filter(post -> !swipeIndexService.hasSwiped(userId, post.getId()))
+            .map(PostView::of)
             .toList();
     }
-}
\ No newline at end of file
+
+    private void loadKnownPostIds() {
+        if (knownPostIdsLoaded) {
+            return;
+        }
+        knownPostIdsLock.lock();
+        try {
+            if (!knownPostIdsLoaded) {
+                postRepository.findAllIds().forEach(knownPostIds::add);
+                knownPostIdsLoaded = true;
+            }
+        } finally {
+            knownPostIdsLock.unlock();
+        }
+    }
+
+    private void rememberPostId(Long id) {
+        knownPostIdsLock.lock();
+        try {
+            knownPostIds.add(id);
+        } finally {
+            knownPostIdsLock.unlock();
+        }
+    }
+
+    // Database cursors carry the last post id read; anything else starts from the beginning
+    private static Long afterId(FeedCursor cursor) {
+        return cursor != null && !cursor.ranked() ? cursor.position() : 0L;
+    }
+
+    // Continues after the last row read, filtered out or not; a short read means nothing is left
+    private static FeedCursor nextCursor(List<Post> rows, int pageSize, long generation) {
+        return rows.size() < pageSize ? null : FeedCursor.database(generation, rows.get(rows.size() - 1).getId());
+    }
+}
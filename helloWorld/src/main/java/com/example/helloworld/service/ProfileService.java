@@ -15,6 +15,18 @@ public class ProfileService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AvatarStore avatarStore;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     public Optional<User> getProfile(String username) {
         return userRepository.findByUsername(username);
     }
@@ -28,7 +40,11 @@ public class ProfileService {
             user.setEmail(updatedData.getEmail());
             user.setDesignation(updatedData.getDesignation());
             user.setBio(updatedData.getBio());
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            userDetailsCache.invalidate(username);
+            userSearchIndex.put(saved);
+            resourceVersions.userChanged(saved);
+            return saved;
         }
         throw new RuntimeException("User not found");
     }
@@ -37,8 +53,12 @@ public class ProfileService {
         Optional<User> optUser = userRepository.findByUsername(username);
         if (optUser.isPresent()) {
             User user = optUser.get();
-            user.setProfilePic(file.getBytes());
-            return userRepository.save(user);
+            user.setProfilePicHash(avatarStore.put(file.getInputStream()));
+            User saved = userRepository.save(user);
+            userDetailsCache.invalidate(username);
+            userSearchIndex.put(saved);
+            resourceVersions.userChanged(saved);
+            return saved;
         }
         throw new RuntimeException("User not found");
     }
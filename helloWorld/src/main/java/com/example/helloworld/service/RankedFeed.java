@@ -0,0 +1,75 @@
+package com.example.helloworld.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * One generation of a user's materialized feed: post ids in rank order in a fixed-capacity buffer
+ * that is refilled in place when the feed is rebuilt, each fill under a new generation number.
+ * Pages are read by position, so a cursor into a generation stays valid until the buffer is
+ * refilled. Entries the caller says to skip (posts swiped since the feed was built) are dropped
+ * as the head passes over them, so the remaining count shrinks as the user works through the
+ * feed and tells when a rebuild is due.
+ *
+ * Not thread-safe; callers guard access.
+ */
+public class RankedFeed {
+
+    private final long[] ids;
+    private long generation;
+    private int head;
+    private int end;
+
+    public RankedFeed(int capacity) {
+        this.ids = new long[Math.max(1, capacity)];
+    }
+
+    // Replaces the contents with the given ids, best first; anything past capacity is dropped
+    public void fill(long[] rankedIds, long generation) {
+        this.generation = generation;
+        head = 0;
+        end = Math.min(rankedIds.length, ids.length);
+        System.arraycopy(rankedIds, 0, ids, 0, end);
+    }
+
+    // Up to limit ids in rank order from position from on; next is where the following page starts
+    public Page page(int from, int limit, LongPredicate skip) {
+        while (head < end && skip.test(ids[head])) {
+            head++;
+        }
+        int i = Math.max(from, head);
+        List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, end - i)));
+        for (; i < end && page.size() < limit; i++) {
+            if (!skip.test(ids[i])) {
+                page.add(ids[i]);
+            }
+        }
+        return new Page(page, i);
+    }
+
+    public boolean contains(long postId) {
+        for (int i = 0; i < end; i++) {
+            if (ids[i] == postId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public int remaining() {
+        return end - head;
+    }
+
+    // How many ids the last fill left in the buffer
+    public int filled() {
+        return end;
+    }
+
+    public record Page(List<Long> ids, int next) {
+    }
+}
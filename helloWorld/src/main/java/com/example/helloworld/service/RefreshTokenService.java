@@ -0,0 +1,143 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.RefreshToken;
+import com.example.helloworld.model.TokenPair;
+import com.example.helloworld.model.User;
+import com.example.helloworld.repository.RefreshTokenRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Issues and rotates refresh tokens. A refresh token is an opaque random string that can be used
+// exactly once: refreshing marks it used and returns a new access token plus a successor in the
+// same family. If a used token is presented again it has leaked, so the whole family is revoked
+// and both the thief and the legitimate client have to log in again.
+@Service
+@Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.jwt.refresh-ttl-days:14}")
+    private long refreshTtlDays;
+
+    @Value("${app.jwt.refresh-purge-interval-minutes:60}")
+    private long purgeIntervalMinutes;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService purger;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "refresh-token-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        // Used rows are kept until they expire so reuse can still be detected
+        purger.scheduleAtFixedRate(this::purgeExpired, purgeIntervalMinutes, purgeIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        purger.shutdownNow();
+    }
+
+    // Starts a new token family for a fresh login
+    public TokenPair issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    public TokenPair rotate(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token required");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHashWithUser(hash(refreshToken))
+            .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        if (current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired or revoked");
+        }
+        // The conditional update also settles two concurrent refreshes with the same token
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            log.warn("Refresh token reuse for user {}; revoking token family", current.getUser().getId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            throw new InvalidRefreshTokenException("Refresh token already used");
+        }
+        return issue(current.getUser(), current.getFamilyId());
+    }
+
+    // Logout: the token and every token rotated from the same login stop working
+    public void revoke(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        Optional<RefreshToken> token = refreshTokenRepository.findByTokenHashWithUser(hash(refreshToken));
+        token.ifPresent(t -> refreshTokenRepository.revokeFamily(t.getFamilyId(), LocalDateTime.now()));
+    }
+
+    private void purgeExpired() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                refreshTokenRepository.deleteExpired(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                log.info("Deleted {} expired refresh tokens", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Refresh token purge failed", e);
+        }
+    }
+
+    private TokenPair issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(hash(refreshToken), user, familyId, now, now.plusDays(refreshTtlDays)));
+        String accessToken = jwtService.generateToken(user.getUsername());
+        return new TokenPair(accessToken, refreshToken, jwtService.getAccessTtlSeconds());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.User;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version tags for the read-heavy JSON endpoints, kept in memory so a conditional GET can be
+// answered without touching the database (see ConditionalGetFilter). The services that change
+// what an endpoint returns bump the matching counter:
+//   posts     - any post created (PostService)
+//   users     - any user registered or profile changed; author summaries appear in every list
+//   per user  - the user's swipes, when queued and again when written, and feed rebuilds
+// Profiles are tagged with the User @Version column, remembered once seen. Counters restart at
+// zero, so tags carry a per-process epoch and a restart never reuses an old tag.
+@Service
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong posts = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final Map<Long, AtomicLong> perUser = new ConcurrentHashMap<>();
+    private final Map<String, String> profileTags = new ConcurrentHashMap<>();
+
+    public String feedTag(long userId) {
+        return "feed-" + epoch + "-" + posts.get() + "-" + users.get() + "-" + userVersion(userId);
+    }
+
+    public String inboxTag(long userId) {
+        return "inbox-" + epoch + "-" + users.get() + "-" + userVersion(userId);
+    }
+
+    public String usersTag() {
+        return "users-" + epoch + "-" + users.get();
+    }
+
+    // Tag for a profile just loaded; remembered so later requests can be answered without a query
+    public String profileTag(User user) {
+        String tag = "profile-" + user.getId() + "-" + user.getVersion();
+        profileTags.put(user.getUsername(), tag);
+        return tag;
+    }
+
+    // Null until the profile has been served or saved by this process
+    public String knownProfileTag(String username) {
+        return profileTags.get(username);
+    }
+
+    public void postsChanged() {
+        posts.incrementAndGet();
+    }
+
+    public void userChanged(User saved) {
+        users.incrementAndGet();
+        profileTag(saved);
+    }
+
+    // Something in this user's feed or inbox changed
+    public void userContentChanged(long userId) {
+        perUser.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    // Reads never create an entry, so requests for unknown ids do not grow the map
+    private long userVersion(long userId) {
+        AtomicLong version = perUser.get(userId);
+        return version != null ? version.get() : 0;
+    }
+}
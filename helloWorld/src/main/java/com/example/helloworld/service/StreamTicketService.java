@@ -0,0 +1,50 @@
+package com.example.helloworld.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Short-lived, single-use tickets for the chat event stream. A browser EventSource cannot send the
+// Authorization header, so the client trades its bearer token for a ticket and opens
+// /api/chat/stream?ticket=...; the ticket names only its user and opens one connection within
+// ticket-ttl-seconds. Kept in memory, like the streams themselves (ChatHub).
+@Service
+public class StreamTicketService {
+
+    @Value("${app.chat.stream.ticket-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    public String issue(String username) {
+        long now = System.currentTimeMillis();
+        tickets.values().removeIf(ticket -> ticket.expiresAt() < now);
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(username, now + ttlSeconds * 1000));
+        return ticket;
+    }
+
+    // The user the ticket was issued to; empty if it is unknown, already used or expired
+    public Optional<String> redeem(String ticket) {
+        Ticket redeemed = ticket != null ? tickets.remove(ticket) : null;
+        if (redeemed == null || redeemed.expiresAt() < System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(redeemed.username());
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private record Ticket(String username, long expiresAt) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.helloworld.service;
+
+// Thrown when the swipe ingestion queue stays full for longer than the configured offer timeout
+public class SwipeBackPressureException extends RuntimeException {
+    public SwipeBackPressureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.Swipe;
+import com.example.helloworld.model.SwipeEvent;
+import com.example.helloworld.repository.LeftSwipeRepository;
+import com.example.helloworld.repository.SwipeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory index of the post ids each user has swiped, one compressed bitmap per direction.
+// Left = left_swipes plus LEFT rows in swipes, right = RIGHT rows in swipes.
+// Users are loaded lazily from the database on first access and kept up to date write-through.
+// A (re)load also applies the user's swipes still queued in SwipeIngestionService, so evicting
+// a user never loses swipes the table does not have yet. Past max-users the least recently used
+// users are evicted, one percent at a time.
+@Service
+public class SwipeIndexService {
+
+    @Autowired
+    private SwipeRepository swipeRepository;
+
+    @Autowired
+    private LeftSwipeRepository leftSwipeRepository;
+
+    // Lazy: SwipeIngestionService evicts users from this index
+    @Autowired
+    @Lazy
+    private SwipeIngestionService swipeIngestionService;
+
+    @Value("${app.swipe-index.max-users:10000}")
+    private int maxUsers;
+
+    private final ConcurrentHashMap<Long, UserSwipes> index = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public boolean hasSwiped(Long userId, Long postId) {
+        UserSwipes swipes = load(userId);
+        swipes.lock.lock();
+        try {
+            return swipes.left.contains(postId) || swipes.right.contains(postId);
+        } finally {
+            swipes.lock.unlock();
+        }
+    }
+
+    public List<Long> getLeftSwipedPostIds(Long userId) {
+        UserSwipes swipes = load(userId);
+        swipes.lock.lock();
+        try {
+            return swipes.left.toList();
+        } finally {
+            swipes.lock.unlock();
+        }
+    }
+
+    public List<Long> getRightSwipedPostIds(Long userId) {
+        UserSwipes swipes = load(userId);
+        swipes.lock.lock();
+        try {
+            return swipes.right.toList();
+        } finally {
+            swipes.lock.unlock();
+        }
+    }
+
+    // Write-through for a row in swipes; a swipe replaces any earlier direction for the same post
+    public void recordSwipe(Long userId, Long postId, Swipe.SwipeDirection direction) {
+        UserSwipes swipes = load(userId);
+        swipes.lock.lock();
+        try {
+            apply(swipes, postId, direction);
+        } finally {
+            swipes.lock.unlock();
+        }
+    }
+
+    // Write-through for a row in left_swipes
+    public void recordLeftSwipe(Long userId, Long postId) {
+        UserSwipes swipes = load(userId);
+        swipes.lock.lock();
+        try {
+            swipes.left.add(postId);
+        } finally {
+            swipes.lock.unlock();
+        }
+    }
+
+    public void evict(Long userId) {
+        index.remove(userId);
+    }
+
+    // Returns the user's entry, reading both tables the first time it is seen
+    private UserSwipes load(Long userId) {
+        UserSwipes swipes = index.get(userId);
+        if (swipes == null) {
+            if (index.size() >= maxUsers) {
+                evictLeastRecentlyUsed();
+            }
+            swipes = index.computeIfAbsent(userId, id -> new UserSwipes());
+        }
+        swipes.lastAccess = System.nanoTime();
+        if (!swipes.loaded) {
+            swipes.lock.lock();
+            try {
+                if (!swipes.loaded) {
+                    // Taken before reading the tables: a swipe that leaves the queue in between is
+                    // committed by the time the queries below run
+                    List<SwipeEvent> uncommitted = swipeIngestionService.uncommittedFor(userId);
+                    for (Long postId : leftSwipeRepository.findPostIdsByUserId(userId)) {
+                        swipes.left.add(postId);
+                    }
+                    for (Long postId : swipeRepository.findPostIdsByUserIdAndDirection(userId, Swipe.SwipeDirection.LEFT)) {
+                        swipes.left.add(postId);
+                    }
+                    for (Long postId : swipeRepository.findPostIdsByUserIdAndDirection(userId, Swipe.SwipeDirection.RIGHT)) {
+                        swipes.right.add(postId);
+                        swipes.left.remove(postId);
+                    }
+                    for (SwipeEvent swipe : uncommitted) {
+                        apply(swipes, swipe.postId(), swipe.direction());
+                    }
+                    swipes.loaded = true;
+                }
+            } finally {
+                swipes.lock.unlock();
+            }
+        }
+        return swipes;
+    }
+
+    // A swipe replaces any earlier direction for the same post; caller holds swipes.lock
+    private static void apply(UserSwipes swipes, Long postId, Swipe.SwipeDirection direction) {
+        if (direction == Swipe.SwipeDirection.RIGHT) {
+            swipes.right.add(postId);
+            swipes.left.remove(postId);
+        } else {
+            swipes.left.add(postId);
+            swipes.right.remove(postId);
+        }
+    }
+
+    // Drops the least recently used one percent of users. One thread scans while the others carry
+    // on loading, so the index can briefly run over max-users.
+    private void evictLeastRecentlyUsed() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<Long, UserSwipes>> entries = new ArrayList<>(index.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            int count = Math.min(entries.size(), Math.max(1, maxUsers / 100));
+            for (Map.Entry<Long, UserSwipes> entry : entries.subList(0, count)) {
+                index.remove(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class UserSwipes {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final PostIdBitmap left = new PostIdBitmap();
+        private final PostIdBitmap right = new PostIdBitmap();
+        private volatile boolean loaded;
+        private volatile long lastAccess;
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.SwipeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Single write path for swipes. Swipes are queued in a bounded buffer, coalesced per (user, post)
+// so only the latest direction is written, and flushed to the swipes table as one JDBC batch of
+// upserts per interval or once batch-size swipes are pending. Ids for new rows come from
+// swipes_seq in blocks of ID_BLOCK, the same way Hibernate allocates them for Swipe. When a batch
+// hits a constraint violation (a post deleted while its swipe was queued, say) it is split in half
+// and retried, so only the offending rows are dropped. Any other failure (database down, lost
+// connection) puts the batch back in the queue, under swipes that arrived since, and flushes back
+// off exponentially up to max-retry-backoff-ms; the upsert makes a retry of a batch that did commit
+// harmless. A full queue then pushes back on new swipes rather than dropping accepted ones.
+//
+// app.swipes.durability:
+//   SYNC         - the caller waits until the batch holding its swipe is committed
+//   GROUP_COMMIT - the caller returns once the swipe is queued; up to one flush interval
+//                  of swipes can be lost if the process dies
+@Service
+public class SwipeIngestionService {
+
+    public enum Durability { SYNC, GROUP_COMMIT }
+
+    private static final Logger log = LoggerFactory.getLogger(SwipeIngestionService.class);
+
+    // Must match allocationSize on Swipe and INCREMENT BY of swipes_seq
+    private static final int ID_BLOCK = 50;
+
+    private static final String H2_UPSERT_SQL =
+        "MERGE INTO swipes t USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP))) " +
+        "s(id, user_id, post_id, direction, swiped_at) " +
+        "ON t.user_id = s.user_id AND t.post_id = s.post_id " +
+        "WHEN MATCHED THEN UPDATE SET direction = s.direction, swiped_at = s.swiped_at " +
+        "WHEN NOT MATCHED THEN INSERT (id, user_id, post_id, direction, swiped_at) " +
+        "VALUES (s.id, s.user_id, s.post_id, s.direction, s.swiped_at)";
+
+    private static final String H2_NEXT_ID_SQL = "SELECT NEXT VALUE FOR swipes_seq";
+
+    private static final String ORACLE_UPSERT_SQL =
+        "MERGE INTO swipes t USING (SELECT ? AS id, ? AS user_id, ? AS post_id, ? AS direction, ? AS swiped_at FROM dual) s " +
+        "ON (t.user_id = s.user_id AND t.post_id = s.post_id) " +
+        "WHEN MATCHED THEN UPDATE SET t.direction = s.direction, t.swiped_at = s.swiped_at " +
+        "WHEN NOT MATCHED THEN INSERT (id, user_id, post_id, direction, swiped_at) " +
+        "VALUES (s.id, s.user_id, s.post_id, s.direction, s.swiped_at)";
+
+    private static final String ORACLE_NEXT_ID_SQL = "SELECT swipes_seq.NEXTVAL FROM dual";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SwipeIndexService swipeIndexService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${app.swipes.durability:GROUP_COMMIT}")
+    private Durability durability;
+
+    @Value("${app.swipes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.swipes.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.swipes.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.swipes.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${app.swipes.sync-timeout-ms:5000}")
+    private long syncTimeoutMs;
+
+    @Value("${app.swipes.max-retry-backoff-ms:30000}")
+    private long maxRetryBackoffMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Pending swipes keyed by (user, post); guarded by lock
+    private LinkedHashMap<SwipeKey, SwipeEvent> pending = new LinkedHashMap<>();
+    // The batch flush is writing, until it is committed or dropped; guarded by lock
+    private Map<SwipeKey, SwipeEvent> inFlight = Map.of();
+    // Completed with the keys that could not be written once the swipes currently pending have
+    // been flushed; guarded by lock
+    private CompletableFuture<Set<SwipeKey>> pendingCommit = new CompletableFuture<>();
+
+    // Current block of swipe ids; guarded by flushLock
+    private long nextId = 1;
+    private long lastId = 0;
+
+    // Flushes that failed in a row, and when the next scheduled one may run; guarded by flushLock
+    private int failedFlushes;
+    private long retryAt;
+
+    private ScheduledExecutorService flusher;
+    private TransactionTemplate transactionTemplate;
+    private String upsertSql;
+    private String nextIdSql;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        boolean oracle = database != null && database.startsWith("Oracle");
+        upsertSql = oracle ? ORACLE_UPSERT_SQL : H2_UPSERT_SQL;
+        nextIdSql = oracle ? ORACLE_NEXT_ID_SQL : H2_NEXT_ID_SQL;
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "swipe-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushWhenDue, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flushQuietly();
+        int lost = pendingCount();
+        if (lost > 0) {
+            log.error("Shutting down with {} swipes that could not be persisted", lost);
+        }
+    }
+
+    // Accepts a swipe, blocking up to offer-timeout-ms when the queue is full
+    public void submit(SwipeEvent swipe) {
+        SwipeKey key = new SwipeKey(swipe.userId(), swipe.postId());
+        CompletableFuture<Set<SwipeKey>> commit;
+        boolean flushNow;
+
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+            while (!pending.containsKey(key) && pending.size() >= queueCapacity) {
+                if (remaining <= 0) {
+                    throw new SwipeBackPressureException("Swipe queue is full");
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            pending.put(key, swipe);
+            commit = pendingCommit;
+            flushNow = pending.size() >= batchSize;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwipeBackPressureException("Interrupted while waiting for swipe queue");
+        } finally {
+            lock.unlock();
+        }
+
+        if (durability == Durability.SYNC) {
+            flusher.execute(this::flushWhenDue);
+            awaitCommit(commit, key);
+        } else if (flushNow) {
+            flusher.execute(this::flushWhenDue);
+        }
+    }
+
+    // Writes everything pending as one batch, even while backing off; safe to call from any thread
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<SwipeKey, SwipeEvent> batch;
+            CompletableFuture<Set<SwipeKey>> commit;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                commit = pendingCommit;
+                inFlight = batch;
+                pending = new LinkedHashMap<>();
+                pendingCommit = new CompletableFuture<>();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            Set<SwipeKey> rejected = new HashSet<>();
+            RuntimeException failure = null;
+            try {
+                // Every row gets an id; ids of rows that turn out to be updates are left unused
+                List<SwipeRow> rows = new ArrayList<>(batch.size());
+                for (Map.Entry<SwipeKey, SwipeEvent> entry : batch.entrySet()) {
+                    SwipeEvent swipe = entry.getValue();
+                    rows.add(new SwipeRow(entry.getKey(), new Object[] {
+                        nextId(), swipe.userId(), swipe.postId(), swipe.direction().name(), Timestamp.valueOf(swipe.swipedAt())
+                    }));
+                }
+                write(rows, rejected);
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                lock.lock();
+                try {
+                    inFlight = Map.of();
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            if (failure != null) {
+                long backoff = Math.min(maxRetryBackoffMs, flushIntervalMs << Math.min(failedFlushes, 20));
+                failedFlushes++;
+                retryAt = System.currentTimeMillis() + backoff;
+                log.error("Failed to persist {} swipes, retrying in {} ms", batch.size(), backoff, failure);
+                requeue(batch, commit);
+                return;
+            }
+            failedFlushes = 0;
+            commit.complete(rejected);
+            // Same for the rows the database turned down
+            rejected.stream().map(SwipeKey::userId).distinct().forEach(swipeIndexService::evict);
+            // Inboxes are read from the table, so their version moves once the rows are there
+            batch.keySet().stream().filter(key -> !rejected.contains(key))
+                .map(SwipeKey::userId).distinct().forEach(resourceVersions::userContentChanged);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // The user's swipes that are not committed yet, queued or being written, oldest first. The swipe
+    // index applies them over what it reads from the table when it (re)loads the user.
+    public List<SwipeEvent> uncommittedFor(Long userId) {
+        lock.lock();
+        try {
+            List<SwipeEvent> swipes = new ArrayList<>();
+            for (Map<SwipeKey, SwipeEvent> swipesByKey : List.of(inFlight, pending)) {
+                for (Map.Entry<SwipeKey, SwipeEvent> entry : swipesByKey.entrySet()) {
+                    if (entry.getKey().userId().equals(userId)) {
+                        swipes.add(entry.getValue());
+                    }
+                }
+            }
+            return swipes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Puts a batch that failed back at the head of the queue. Swipes submitted for the same key in
+    // the meantime are newer and win. Callers waiting on the batch now wait on the next flush.
+    private void requeue(Map<SwipeKey, SwipeEvent> batch, CompletableFuture<Set<SwipeKey>> commit) {
+        lock.lock();
+        try {
+            LinkedHashMap<SwipeKey, SwipeEvent> merged = new LinkedHashMap<>(batch);
+            merged.putAll(pending);
+            pending = merged;
+            pendingCommit.whenComplete((rejected, e) -> {
+                if (e != null) {
+                    commit.completeExceptionally(e);
+                } else {
+                    commit.complete(rejected);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Scheduled and submit-triggered flushes; skipped while backing off after a failed flush
+    private void flushWhenDue() {
+        flushLock.lock();
+        try {
+            if (failedFlushes > 0 && System.currentTimeMillis() < retryAt) {
+                return;
+            }
+            flushQuietly();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Swipe flush failed", e);
+        }
+    }
+
+    // Upserts rows in one transaction; on a constraint violation the rows are split in half and each
+    // half retried, down to single rows, which are logged and added to rejected. Any other failure
+    // (lost connection, timeout) is rethrown and fails the whole flush.
+    private void write(List<SwipeRow> rows, Set<SwipeKey> rejected) {
+        try {
+            List<Object[]> args = rows.stream().map(SwipeRow::args).toList();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(upsertSql, args));
+        } catch (DataIntegrityViolationException e) {
+            if (rows.size() == 1) {
+                SwipeKey key = rows.get(0).key();
+                log.warn("Dropping swipe of user {} on post {}: {}", key.userId(), key.postId(), e.getMostSpecificCause().getMessage());
+                rejected.add(key);
+                return;
+            }
+            int half = rows.size() / 2;
+            write(rows.subList(0, half), rejected);
+            write(rows.subList(half, rows.size()), rejected);
+        }
+    }
+
+    private void awaitCommit(CompletableFuture<Set<SwipeKey>> commit, SwipeKey key) {
+        try {
+            if (commit.get(syncTimeoutMs, TimeUnit.MILLISECONDS).contains(key)) {
+                throw new IllegalStateException("Swipe was rejected by the database");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for swipe commit", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to persist swipe", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for swipe commit", e);
+        }
+    }
+
+    // Same scheme as Hibernate's pooled optimizer: sequence value v reserves the ID_BLOCK ids ending at v
+    private long nextId() {
+        if (nextId > lastId) {
+            long hi = jdbcTemplate.queryForObject(nextIdSql, Long.class);
+            nextId = Math.max(1, hi - ID_BLOCK + 1);
+            lastId = hi;
+        }
+        return nextId++;
+    }
+
+    private record SwipeKey(Long userId, Long postId) {
+    }
+
+    private record SwipeRow(SwipeKey key, Object[] args) {
+    }
+}
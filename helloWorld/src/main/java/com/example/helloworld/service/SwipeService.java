@@ -5,7 +5,6 @@ import com.example.helloworld.repository.SwipeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import java.util.Optional;
 import java.time.LocalDateTime;
 
 @Service
@@ -14,30 +13,40 @@ public class SwipeService {
     @Autowired
     private SwipeRepository swipeRepository;
 
-    public Swipe swipe(User user, Post post, Swipe.SwipeDirection direction) {
-        Optional<Swipe> existing = swipeRepository.findByUserAndPost(user, post);
-        LocalDateTime now = LocalDateTime.now();
-
-        if (existing.isPresent()) {
-            Swipe swipe = existing.get();
-            swipe.setDirection(direction);
-            swipe.setSwipedAt(now);  // updated
-            return swipeRepository.save(swipe);
-        }
-
-        Swipe swipe = new Swipe();
-        swipe.setUser(user);
-        swipe.setPost(post);
-        swipe.setDirection(direction);
-        swipe.setSwipedAt(now);  // updated
-        return swipeRepository.save(swipe);
+    @Autowired
+    private SwipeIndexService swipeIndexService;
+
+    @Autowired
+    private SwipeIngestionService swipeIngestionService;
+
+    @Autowired
+    private FeedMaterializer feedMaterializer;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    // Every swipe, left or right, goes through here: queued for a batched upsert into swipes
+    // and recorded in the swipe index straight away so the feed hides the post immediately.
+    // Right swipes also feed the user's ranking preferences. The user's feed changes now; the
+    // inbox, read from the table, changes again when the batch is written.
+    public SwipeEvent swipe(Long userId, Long postId, Swipe.SwipeDirection direction, LocalDateTime swipedAt) {
+        SwipeEvent swipe = new SwipeEvent(userId, postId, direction, swipedAt != null ? swipedAt : LocalDateTime.now());
+        swipeIngestionService.submit(swipe);
+        swipeIndexService.recordSwipe(userId, postId, direction);
+        feedMaterializer.recordSwipe(userId, postId, direction);
+        resourceVersions.userContentChanged(userId);
+        return swipe;
     }
 
-    public List<Swipe> getRightSwipedPosts(User user) {
-        return swipeRepository.findByUserAndDirection(user, Swipe.SwipeDirection.RIGHT);
+    // Right-swiped posts with the time of the swipe, loaded in one statement
+    public List<PostView> getRightSwipedPosts(Long userId) {
+        return swipeRepository.findWithPostByUserIdAndDirection(userId, Swipe.SwipeDirection.RIGHT).stream()
+            .map(swipe -> PostView.of(swipe.getPost(), swipe.getSwipedAt()))
+            .toList();
     }
 
-    public Swipe save(Swipe swipe) {
-        return swipeRepository.save(swipe);
+    // Served from the in-memory swipe index
+    public List<Long> getRightSwipedPostIds(User user) {
+        return swipeIndexService.getRightSwipedPostIds(user.getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.RevokedToken;
+import com.example.helloworld.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Access tokens revoked before they expire, checked on every authenticated request.
+// A bloom filter answers "definitely not revoked" for almost every token without touching the
+// exact set; only possible hits look up the token id in the exact map. Entries live until the
+// token would have expired anyway, so both stay as small as the number of logouts within one
+// access-token lifetime. Revocations are also written to revoked_tokens and reloaded at startup.
+@Service
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.jwt.revocation.purge-interval-seconds:60}")
+    private long purgeIntervalSeconds;
+
+    // Token id -> expiry in epoch millis
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    // Serializes writers with the rebuild, so a revocation is never lost from a filter being replaced
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile BloomFilter filter;
+    private volatile boolean empty = true;
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService purger;
+
+    @PostConstruct
+    public void start() {
+        filter = new BloomFilter(expectedEntries);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-revocation-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleAtFixedRate(this::purgeExpired, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        purger.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        writeLock.lock();
+        try {
+            for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+                add(token.getJti(), toMillis(token.getExpiresAt()));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Loaded {} revoked access tokens", revoked.size());
+    }
+
+    // No allocation on the common path: the filter probe only reads the cached String hash and chars
+    public boolean isRevoked(String jti) {
+        if (jti == null || empty || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void revoke(String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault());
+        transactionTemplate.executeWithoutResult(status ->
+            revokedTokenRepository.save(new RevokedToken(jti, expiresAt)));
+        writeLock.lock();
+        try {
+            add(jti, expiresAtMillis);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Drops expired entries and, when any were dropped, rebuilds the filter from what is left
+    void purgeExpired() {
+        try {
+            long now = System.currentTimeMillis();
+            writeLock.lock();
+            try {
+                if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+                    BloomFilter rebuilt = new BloomFilter(expectedEntries);
+                    revoked.keySet().forEach(rebuilt::put);
+                    filter = rebuilt;
+                    empty = revoked.isEmpty();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                revokedTokenRepository.deleteExpired(LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.warn("Revoked token purge failed", e);
+        }
+    }
+
+    private void add(String jti, long expiresAtMillis) {
+        revoked.merge(jti, expiresAtMillis, Math::max);
+        filter.put(jti);
+        empty = false;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Fixed-size bloom filter over strings, ~1% false positives at the expected entry count.
+    // Bits are set with CAS so readers never need the write lock.
+    static final class BloomFilter {
+
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray words;
+        private final int bits;
+
+        BloomFilter(int expectedEntries) {
+            // m = -n ln(p) / (ln 2)^2 with p = 0.01, rounded up to whole words
+            long m = (long) Math.ceil(Math.max(1, expectedEntries) * 9.585);
+            int wordCount = (int) Math.min(Integer.MAX_VALUE / 64, (m + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bits = wordCount * 64;
+        }
+
+        void put(String value) {
+            int h1 = value.hashCode();
+            int h2 = secondHash(value);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            int h1 = value.hashCode();
+            int h2 = secondHash(value);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars, forced odd so the probe sequence covers distinct bits
+        private static int secondHash(String value) {
+            int h = 0x811c9dc5;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x01000193;
+            }
+            return h | 1;
+        }
+    }
+}
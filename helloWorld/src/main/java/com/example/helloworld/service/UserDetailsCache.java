@@ -0,0 +1,72 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Authenticated principals by username, so the JWT filter doesn't query users on every request.
+// Entries expire after a TTL and are invalidated when the user's profile or password changes.
+@Service
+public class UserDetailsCache {
+
+    private static final List<GrantedAuthority> ADMIN = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${app.auth.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.auth.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    // Users allowed on the operational endpoints (search index rebuild); nobody by default
+    @Value("${app.admin.usernames:}")
+    private Set<String> adminUsernames;
+
+    private final ConcurrentHashMap<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+
+    public Optional<UserDetails> get(String username) {
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = principals.get(username);
+        if (cached != null && cached.expiresAt() > now) {
+            return Optional.of(cached.userDetails());
+        }
+
+        Optional<User> userOpt = userService.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            principals.remove(username);
+            return Optional.empty();
+        }
+        User user = userOpt.get();
+        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .authorities(adminUsernames.contains(user.getUsername()) ? ADMIN : List.of())
+                .build();
+        if (principals.size() >= maxSize) {
+            principals.values().removeIf(p -> p.expiresAt() <= now);
+            if (principals.size() >= maxSize) {
+                principals.clear();
+            }
+        }
+        principals.put(username, new CachedPrincipal(userDetails, now + ttlSeconds * 1000));
+        return Optional.of(userDetails);
+    }
+
+    public void invalidate(String username) {
+        principals.remove(username);
+    }
+
+    private record CachedPrincipal(UserDetails userDetails, long expiresAt) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.model.User;
+import com.example.helloworld.model.UserSummary;
+import com.example.helloworld.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Typeahead index over username, first name, last name and designation. Every word of those
+// fields is a key in a sorted term map, so a prefix lookup is a range scan. Each query word must
+// prefix-match some word of the user; users whose username starts with the first query word rank
+// first, then alphabetical. Usernames are also kept in their own sorted map, whose range scan
+// yields those top matches already in rank order.
+@Service
+public class UserSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    public static final int MAX_LIMIT = 50;
+    // Postings examined per query, so a one-letter prefix stays cheap on a large user base
+    private static final int MAX_SCAN = 5000;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean ready;
+
+    // Guarded by lock
+    private Map<Long, Entry> entries = new HashMap<>();
+    private NavigableMap<String, Set<Long>> terms = new TreeMap<>();
+    // Lower-cased username and id (usernameKey) to id
+    private NavigableMap<String, Long> usernames = new TreeMap<>();
+    private final Map<Long, Entry> updatedWhileRebuilding = new LinkedHashMap<>();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Indexes the user once the surrounding transaction commits (immediately if there is none)
+    public void put(User user) {
+        Entry entry = Entry.of(UserSummary.of(user));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(entry);
+                }
+            });
+        } else {
+            apply(entry);
+        }
+    }
+
+    public List<UserSummary> search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        // Drive the scan with the longest word; it has the narrowest prefix range
+        String driver = words.stream().max(Comparator.comparingInt(String::length)).get();
+        String first = words.get(0);
+
+        lock.readLock().lock();
+        try {
+            // Username prefix matches come out of the username map in rank order, so the first max
+            // that match every word are the top of the result
+            List<UserSummary> hits = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            int scanned = 0;
+            for (Long id : usernames.subMap(first, true, first + Character.MAX_VALUE, true).values()) {
+                if (hits.size() >= max || ++scanned > MAX_SCAN) {
+                    break;
+                }
+                Entry entry = entries.get(id);
+                if (entry != null && entry.matchesAll(words)) {
+                    hits.add(entry.summary());
+                    seen.add(id);
+                }
+            }
+            if (hits.size() >= max) {
+                return hits;
+            }
+
+            // Fill up from the driver word's postings, ranked over everything the bounded scan finds
+            List<UserSummary> others = new ArrayList<>();
+            scanned = 0;
+            scan:
+            for (Set<Long> ids : terms.subMap(driver, true, driver + Character.MAX_VALUE, true).values()) {
+                for (Long id : ids) {
+                    if (++scanned > MAX_SCAN) {
+                        break scan;
+                    }
+                    Entry entry = entries.get(id);
+                    if (entry != null && seen.add(id) && entry.matchesAll(words)) {
+                        others.add(entry.summary());
+                    }
+                }
+            }
+            others.sort(Comparator
+                .comparing((UserSummary u) -> !u.username().toLowerCase(Locale.ROOT).startsWith(first))
+                .thenComparing(u -> u.username().toLowerCase(Locale.ROOT)));
+            hits.addAll(others.subList(0, Math.min(others.size(), max - hits.size())));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    // Rebuilds the index from the users table and swaps it in; returns false if one is already running
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            lock.writeLock().lock();
+            try {
+                updatedWhileRebuilding.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Map<Long, Entry> newEntries = new HashMap<>();
+            NavigableMap<String, Set<Long>> newTerms = new TreeMap<>();
+            NavigableMap<String, Long> newUsernames = new TreeMap<>();
+            long afterId = 0L;
+            while (true) {
+                List<User> page = userRepository.findByIdGreaterThanOrderByIdAsc(
+                    afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                for (User user : page) {
+                    applyTo(newEntries, newTerms, newUsernames, Entry.of(UserSummary.of(user)));
+                }
+                if (page.size() < REBUILD_PAGE_SIZE) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Registrations and profile edits made while reading may be missing or stale
+                updatedWhileRebuilding.values().forEach(e -> applyTo(newEntries, newTerms, newUsernames, e));
+                updatedWhileRebuilding.clear();
+                entries = newEntries;
+                terms = newTerms;
+                usernames = newUsernames;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("User search index rebuilt with {} users", newEntries.size());
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void apply(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding.get()) {
+                updatedWhileRebuilding.put(entry.summary().id(), entry);
+            }
+            applyTo(entries, terms, usernames, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void applyTo(Map<Long, Entry> entries, NavigableMap<String, Set<Long>> terms,
+                                NavigableMap<String, Long> usernames, Entry entry) {
+        Long id = entry.summary().id();
+        Entry previous = entries.put(id, entry);
+        if (previous != null) {
+            usernames.remove(usernameKey(previous.summary()));
+            for (String word : previous.words()) {
+                Set<Long> ids = terms.get(word);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    terms.remove(word);
+                }
+            }
+        }
+        for (String word : entry.words()) {
+            terms.computeIfAbsent(word, w -> new TreeSet<>()).add(id);
+        }
+        usernames.put(usernameKey(entry.summary()), id);
+    }
+
+    // Sorts by lower-cased username; the id keeps usernames that differ only in case apart
+    private static String usernameKey(UserSummary summary) {
+        return summary.username().toLowerCase(Locale.ROOT) + '\u0000' + summary.id();
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private record Entry(UserSummary summary, NavigableSet<String> words) {
+
+        static Entry of(UserSummary summary) {
+            NavigableSet<String> words = new TreeSet<>();
+            words.addAll(tokenize(summary.username()));
+            words.addAll(tokenize(summary.firstName()));
+            words.addAll(tokenize(summary.lastName()));
+            words.addAll(tokenize(summary.designation()));
+            return new Entry(summary, words);
+        }
+
+        boolean matchesAll(List<String> query) {
+            for (String q : query) {
+                String candidate = words.ceiling(q);
+                if (candidate == null || !candidate.startsWith(q)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,23 +1,53 @@
 package com.example.helloworld.service;
 
 import com.example.helloworld.model.User;
+import com.example.helloworld.model.UserSummary;
 import com.example.helloworld.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.Optional;
 import java.util.List;
 
 @Service
 @Transactional
 public class UserService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private CredentialVerifier credentialVerifier;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     // Original method - updated to include password encoding
     public User register(User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -28,7 +58,10 @@ public class UserService {
         }
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userSearchIndex.put(saved);
+        resourceVersions.userChanged(saved);
+        return saved;
     }
 
     // New authentication methods
@@ -44,22 +77,58 @@ public class UserService {
         return userRepository.findById(id);
     }
 
-    // Validate user credentials
-    public boolean validateCredentials(String username, String rawPassword) {
+    // Primary-key probe; does not load the user
+    public boolean existsById(Long id) {
+        return id != null && userRepository.existsById(id);
+    }
+
+    // Validate user credentials. Loads the user once and returns it on success. Runs outside a
+    // transaction so no connection is held while BCrypt runs on the verifier pool; a hash with an
+    // outdated work factor is replaced by the fresh one computed during verification.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<User> authenticate(String username, String rawPassword) {
         Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            return passwordEncoder.matches(rawPassword, user.getPassword());
+        if (userOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        User user = userOpt.get();
+        CredentialVerifier.Result result = credentialVerifier.verify(rawPassword, user.getPassword());
+        if (!result.matches()) {
+            return Optional.empty();
+        }
+        if (result.rehash() != null) {
+            rehash(user, result.rehash());
+        }
+        return Optional.of(user);
+    }
+
+    private void rehash(User user, String newHash) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                userRepository.replacePasswordHash(user.getId(), user.getPassword(), newHash));
+            user.setPassword(newHash);
+        } catch (RuntimeException e) {
+            // The old hash still verifies; try again on the next login
+            log.warn("Could not upgrade password hash for user {}", user.getId(), e);
         }
-        return false;
     }
 
     // Fetch all users
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    public List<UserSummary> findAllUsers() {
+        return userRepository.findAll().stream()
+            .map(UserSummary::of)
+            .toList();
     }
 
-    public List<User> searchUsers(String query) {
-        return userRepository.searchUsers(query);
+    // Typeahead search; served by the in-memory index once it has been built
+    @Transactional(readOnly = true)
+    public List<UserSummary> searchUsers(String query, int limit) {
+        int max = Math.max(1, Math.min(limit, UserSearchIndex.MAX_LIMIT));
+        if (userSearchIndex.isReady()) {
+            return userSearchIndex.search(query, max);
+        }
+        return userRepository.searchUsers(query.trim(), PageRequest.of(0, max)).stream()
+            .map(UserSummary::of)
+            .toList();
     }
 }
@@ -0,0 +1,140 @@
+-- Schema as Hibernate's ddl-auto=update left it, so an existing development database is adopted
+-- as is (baseline-on-migrate at version 0, then everything below is a no-op) and a new one gets
+-- the same tables. Ids come from sequences that Hibernate reads in blocks of 50 (allocationSize).
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    designation VARCHAR(255),
+    bio VARCHAR(255),
+    profile_pic_hash VARCHAR(64),
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS posts (
+    id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000) NOT NULL,
+    stack VARCHAR(255) NOT NULL,
+    image VARCHAR(255),
+    category VARCHAR(255) NOT NULL,
+    author_id BIGINT,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_posts PRIMARY KEY (id),
+    CONSTRAINT fk_posts_author FOREIGN KEY (author_id) REFERENCES users (id)
+);
+CREATE INDEX IF NOT EXISTS idx_posts_author ON posts (author_id);
+CREATE INDEX IF NOT EXISTS idx_posts_category_id ON posts (category, id);
+
+CREATE TABLE IF NOT EXISTS swipes (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    direction ENUM('LEFT', 'RIGHT') NOT NULL,
+    swiped_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_swipes PRIMARY KEY (id),
+    CONSTRAINT uk_swipes_user_post UNIQUE (user_id, post_id),
+    CONSTRAINT fk_swipes_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_swipes_post FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+
+CREATE TABLE IF NOT EXISTS left_swipes (
+    id BIGINT NOT NULL,
+    user_id BIGINT,
+    post_id BIGINT,
+    timestamp TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_left_swipes PRIMARY KEY (id),
+    CONSTRAINT fk_left_swipes_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_left_swipes_post FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+CREATE INDEX IF NOT EXISTS idx_left_swipes_user_post ON left_swipes (user_id, post_id);
+
+CREATE TABLE IF NOT EXISTS messages (
+    id BIGINT NOT NULL,
+    from_user_id BIGINT NOT NULL,
+    to_user_id BIGINT NOT NULL,
+    content VARCHAR(4000),
+    created_at VARCHAR(255),
+    is_read BOOLEAN NOT NULL,
+    CONSTRAINT pk_messages PRIMARY KEY (id),
+    CONSTRAINT fk_messages_from_user FOREIGN KEY (from_user_id) REFERENCES users (id),
+    CONSTRAINT fk_messages_to_user FOREIGN KEY (to_user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS chat_messages (
+    id BIGINT NOT NULL,
+    sender VARCHAR(255) NOT NULL,
+    recipient VARCHAR(255),
+    content VARCHAR(1000) NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_chat_messages PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_chat_messages_sender_recipient_ts ON chat_messages (sender, recipient, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_chat_messages_recipient_ts ON chat_messages (recipient, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_chat_messages_ts ON chat_messages (timestamp, id);
+
+CREATE TABLE IF NOT EXISTS conversations (
+    id BIGINT NOT NULL,
+    owner VARCHAR(255) NOT NULL,
+    peer VARCHAR(255) NOT NULL,
+    last_message_id BIGINT NOT NULL,
+    last_message_at TIMESTAMP(6) NOT NULL,
+    last_message_sender VARCHAR(255),
+    last_message_preview VARCHAR(140),
+    unread_count INTEGER NOT NULL,
+    CONSTRAINT pk_conversations PRIMARY KEY (id),
+    CONSTRAINT uk_conversations_owner_peer UNIQUE (owner, peer)
+);
+CREATE INDEX IF NOT EXISTS idx_conversations_owner_last ON conversations (owner, last_message_at, last_message_id);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGINT NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    family_id VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    used_at TIMESTAMP(6),
+    revoked_at TIMESTAMP(6),
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family_id);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_revoked_tokens PRIMARY KEY (jti)
+);
+
+-- Columns added to existing tables after they were first created
+ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_pic_hash VARCHAR(64);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Tables written under IDENTITY already hold ids, so each sequence restarts one block above the
+-- highest: Hibernate's first block from a value v is v-49..v.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS posts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS swipes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS left_swipes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS messages_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS chat_messages_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS conversations_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+ALTER SEQUENCE posts_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM posts);
+ALTER SEQUENCE swipes_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM swipes);
+ALTER SEQUENCE left_swipes_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM left_swipes);
+ALTER SEQUENCE messages_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM messages);
+ALTER SEQUENCE chat_messages_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM chat_messages);
+ALTER SEQUENCE conversations_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM conversations);
+ALTER SEQUENCE refresh_tokens_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM refresh_tokens);
@@ -0,0 +1,30 @@
+-- Indexes for the repository queries that V1's keys and indexes do not already serve.
+-- Each one names the queries it is for; QueryPlanTests checks the plans.
+
+-- SwipeRepository: every per-user lookup filters on direction too; post_id makes the id-only
+-- query (findPostIdsByUserIdAndDirection) covering. Lookups by (user, post) use uk_swipes_user_post.
+CREATE INDEX IF NOT EXISTS idx_swipes_user_direction_post ON swipes (user_id, direction, post_id);
+-- Foreign key to posts, checked when a post is deleted
+CREATE INDEX IF NOT EXISTS idx_swipes_post ON swipes (post_id);
+CREATE INDEX IF NOT EXISTS idx_left_swipes_post ON left_swipes (post_id);
+
+-- PostRepository.countImageReferences: prefix LIKE on the image URL
+CREATE INDEX IF NOT EXISTS idx_posts_image ON posts (image);
+
+-- ChatMessageRepository.findBySender*: sender with keyset order; the (sender, recipient, ...)
+-- index only orders by timestamp within a single recipient
+CREATE INDEX IF NOT EXISTS idx_chat_messages_sender_ts ON chat_messages (sender, timestamp, id);
+
+-- MessageRepository inbox and sent lists, newest first
+CREATE INDEX IF NOT EXISTS idx_messages_to_user_created ON messages (to_user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_messages_from_user_created ON messages (from_user_id, created_at);
+
+-- Token purges (deleteExpired, findByExpiresAtAfter) and the foreign key to users
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires ON refresh_tokens (expires_at);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires ON revoked_tokens (expires_at);
+
+-- UserRepository.countProfilePicReferences
+CREATE INDEX IF NOT EXISTS idx_users_profile_pic_hash ON users (profile_pic_hash);
+
+-- PostRepository.findFeedPageInCategories: idx_posts_category_norm, added with its column in V4
@@ -0,0 +1,24 @@
+-- H2 gives every foreign key its own index unless an index on exactly its columns already exists
+-- when the constraint is added. V1 adds the constraints with the tables, ahead of the indexes
+-- meant for them, so those columns ended up indexed twice and the planner, which keeps the first
+-- of two equally cheap indexes, read the bare FK index. Re-adding the constraints lets them adopt
+-- the single-column indexes and drops the extra ones. Constraints under Hibernate's generated
+-- names on a database adopted from ddl-auto=update are left alone.
+
+ALTER TABLE posts DROP CONSTRAINT IF EXISTS fk_posts_author;
+ALTER TABLE posts ADD CONSTRAINT IF NOT EXISTS fk_posts_author FOREIGN KEY (author_id) REFERENCES users (id);
+
+ALTER TABLE swipes DROP CONSTRAINT IF EXISTS fk_swipes_post;
+ALTER TABLE swipes ADD CONSTRAINT IF NOT EXISTS fk_swipes_post FOREIGN KEY (post_id) REFERENCES posts (id);
+
+ALTER TABLE left_swipes DROP CONSTRAINT IF EXISTS fk_left_swipes_post;
+ALTER TABLE left_swipes ADD CONSTRAINT IF NOT EXISTS fk_left_swipes_post FOREIGN KEY (post_id) REFERENCES posts (id);
+
+ALTER TABLE refresh_tokens DROP CONSTRAINT IF EXISTS fk_refresh_tokens_user;
+ALTER TABLE refresh_tokens ADD CONSTRAINT IF NOT EXISTS fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+-- The messages lists join messages after the user looked up by username, and H2 only reads an
+-- index in ORDER BY order for the leading columns of the first table, so (to_user_id, created_at)
+-- did nothing the FK index on to_user_id does not already do. Oracle keeps them (V2 there).
+DROP INDEX IF EXISTS idx_messages_to_user_created;
+DROP INDEX IF EXISTS idx_messages_from_user_created;
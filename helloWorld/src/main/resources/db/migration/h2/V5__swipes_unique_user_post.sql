@@ -0,0 +1,12 @@
+-- V1 creates swipes with uk_swipes_user_post, but a database adopted from ddl-auto=update kept
+-- its own swipes table, which has no such key. SwipeIngestionService's MERGE and its split on
+-- constraint violations rely on it, so add it there. Duplicates from before are dropped first,
+-- keeping each user's latest swipe on a post (newest swiped_at, then highest id).
+DELETE FROM swipes s
+WHERE EXISTS (
+    SELECT 1 FROM swipes n
+    WHERE n.user_id = s.user_id AND n.post_id = s.post_id
+      AND (n.swiped_at > s.swiped_at OR (n.swiped_at = s.swiped_at AND n.id > s.id))
+);
+
+ALTER TABLE swipes ADD CONSTRAINT IF NOT EXISTS uk_swipes_user_post UNIQUE (user_id, post_id);
@@ -0,0 +1,26 @@
+-- Builds the conversations read model from chat history that predates it (a database adopted from
+-- ddl-auto=update), in one statement before the application takes any message. One row per owner
+-- and peer of every chat, pointing at the pair's newest message, with the preview cut as
+-- Conversation.preview does. Chat messages carry no read flag, so the owner counts as having read
+-- everything up to their own latest message in the chat; what the peer sent after it is unread.
+-- Pairs that already have a row are left alone.
+INSERT INTO conversations (id, owner, peer, last_message_id, last_message_at, last_message_sender,
+                           last_message_preview, unread_count)
+SELECT NEXT VALUE FOR conversations_seq, p.owner, p.peer, m.id, m.timestamp, m.sender,
+       CASE WHEN CHAR_LENGTH(m.content) > 140 THEN SUBSTRING(m.content, 1, 139) || '…' ELSE m.content END,
+       (SELECT COUNT(*) FROM chat_messages r
+        WHERE r.sender = p.peer AND r.recipient = p.owner AND p.owner <> p.peer
+          AND NOT EXISTS (
+              SELECT 1 FROM chat_messages o
+              WHERE o.sender = p.owner AND o.recipient = p.peer
+                AND (o.timestamp > r.timestamp OR (o.timestamp = r.timestamp AND o.id > r.id))))
+FROM (SELECT sender AS owner, recipient AS peer FROM chat_messages WHERE recipient IS NOT NULL
+      UNION
+      SELECT recipient, sender FROM chat_messages WHERE recipient IS NOT NULL) p
+JOIN chat_messages m
+  ON ((m.sender = p.owner AND m.recipient = p.peer) OR (m.sender = p.peer AND m.recipient = p.owner))
+ AND NOT EXISTS (
+     SELECT 1 FROM chat_messages n
+     WHERE ((n.sender = p.owner AND n.recipient = p.peer) OR (n.sender = p.peer AND n.recipient = p.owner))
+       AND (n.timestamp > m.timestamp OR (n.timestamp = m.timestamp AND n.id > m.id)))
+WHERE NOT EXISTS (SELECT 1 FROM conversations c WHERE c.owner = p.owner AND c.peer = p.peer);
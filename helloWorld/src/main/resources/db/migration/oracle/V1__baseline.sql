@@ -0,0 +1,126 @@
+-- Production schema. Ids come from sequences that Hibernate reads in blocks of 50
+-- (allocationSize), so inserts can be batched; INCREMENT BY must match.
+
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+CREATE SEQUENCE posts_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+CREATE SEQUENCE swipes_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+CREATE SEQUENCE left_swipes_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+CREATE SEQUENCE messages_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+CREATE SEQUENCE chat_messages_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+CREATE SEQUENCE conversations_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+CREATE SEQUENCE refresh_tokens_seq START WITH 1 INCREMENT BY 50 CACHE 20;
+
+CREATE TABLE users (
+    id NUMBER(19) NOT NULL,
+    username VARCHAR2(255 CHAR) NOT NULL,
+    password VARCHAR2(255 CHAR) NOT NULL,
+    email VARCHAR2(255 CHAR),
+    first_name VARCHAR2(255 CHAR),
+    last_name VARCHAR2(255 CHAR),
+    designation VARCHAR2(255 CHAR),
+    bio VARCHAR2(255 CHAR),
+    profile_pic_hash VARCHAR2(64 CHAR),
+    version NUMBER(19) DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE posts (
+    id NUMBER(19) NOT NULL,
+    title VARCHAR2(255 CHAR) NOT NULL,
+    description VARCHAR2(1000 CHAR) NOT NULL,
+    stack VARCHAR2(255 CHAR) NOT NULL,
+    image VARCHAR2(255 CHAR),
+    category VARCHAR2(255 CHAR) NOT NULL,
+    author_id NUMBER(19),
+    version NUMBER(19) DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_posts PRIMARY KEY (id),
+    CONSTRAINT fk_posts_author FOREIGN KEY (author_id) REFERENCES users (id)
+);
+CREATE INDEX idx_posts_author ON posts (author_id);
+CREATE INDEX idx_posts_category_id ON posts (category, id);
+
+CREATE TABLE swipes (
+    id NUMBER(19) NOT NULL,
+    user_id NUMBER(19) NOT NULL,
+    post_id NUMBER(19) NOT NULL,
+    direction VARCHAR2(255 CHAR) NOT NULL,
+    swiped_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_swipes PRIMARY KEY (id),
+    CONSTRAINT ck_swipes_direction CHECK (direction IN ('LEFT', 'RIGHT')),
+    CONSTRAINT uk_swipes_user_post UNIQUE (user_id, post_id),
+    CONSTRAINT fk_swipes_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_swipes_post FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+
+CREATE TABLE left_swipes (
+    id NUMBER(19) NOT NULL,
+    user_id NUMBER(19),
+    post_id NUMBER(19),
+    timestamp TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_left_swipes PRIMARY KEY (id),
+    CONSTRAINT fk_left_swipes_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_left_swipes_post FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+CREATE INDEX idx_left_swipes_user_post ON left_swipes (user_id, post_id);
+
+CREATE TABLE messages (
+    id NUMBER(19) NOT NULL,
+    from_user_id NUMBER(19) NOT NULL,
+    to_user_id NUMBER(19) NOT NULL,
+    content VARCHAR2(4000 CHAR),
+    created_at VARCHAR2(255 CHAR),
+    is_read NUMBER(1) NOT NULL,
+    CONSTRAINT pk_messages PRIMARY KEY (id),
+    CONSTRAINT ck_messages_is_read CHECK (is_read IN (0, 1)),
+    CONSTRAINT fk_messages_from_user FOREIGN KEY (from_user_id) REFERENCES users (id),
+    CONSTRAINT fk_messages_to_user FOREIGN KEY (to_user_id) REFERENCES users (id)
+);
+
+CREATE TABLE chat_messages (
+    id NUMBER(19) NOT NULL,
+    sender VARCHAR2(255 CHAR) NOT NULL,
+    recipient VARCHAR2(255 CHAR),
+    content VARCHAR2(1000 CHAR) NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_chat_messages PRIMARY KEY (id)
+);
+CREATE INDEX idx_chat_messages_sender_recipient_ts ON chat_messages (sender, recipient, timestamp, id);
+CREATE INDEX idx_chat_messages_recipient_ts ON chat_messages (recipient, timestamp, id);
+CREATE INDEX idx_chat_messages_ts ON chat_messages (timestamp, id);
+
+CREATE TABLE conversations (
+    id NUMBER(19) NOT NULL,
+    owner VARCHAR2(255 CHAR) NOT NULL,
+    peer VARCHAR2(255 CHAR) NOT NULL,
+    last_message_id NUMBER(19) NOT NULL,
+    last_message_at TIMESTAMP(6) NOT NULL,
+    last_message_sender VARCHAR2(255 CHAR),
+    last_message_preview VARCHAR2(140 CHAR),
+    unread_count NUMBER(10) NOT NULL,
+    CONSTRAINT pk_conversations PRIMARY KEY (id),
+    CONSTRAINT uk_conversations_owner_peer UNIQUE (owner, peer)
+);
+CREATE INDEX idx_conversations_owner_last ON conversations (owner, last_message_at, last_message_id);
+
+CREATE TABLE refresh_tokens (
+    id NUMBER(19) NOT NULL,
+    token_hash VARCHAR2(64 CHAR) NOT NULL,
+    user_id NUMBER(19) NOT NULL,
+    family_id VARCHAR2(36 CHAR) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    used_at TIMESTAMP(6),
+    revoked_at TIMESTAMP(6),
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
+
+CREATE TABLE revoked_tokens (
+    jti VARCHAR2(36 CHAR) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_revoked_tokens PRIMARY KEY (jti)
+);
@@ -0,0 +1,10 @@
+-- The category feed filters case-insensitively. Post keeps the category as entered and writes its
+-- trimmed, lower-cased form to category_norm (Post.normalizeCategory), which the filter compares
+-- and idx_posts_category_norm serves. Rows written before that get it from the category here.
+ALTER TABLE posts ADD category_norm VARCHAR2(255 CHAR);
+UPDATE posts SET category_norm = LOWER(TRIM(category));
+ALTER TABLE posts MODIFY category_norm NOT NULL;
+CREATE INDEX idx_posts_category_norm ON posts (category_norm, id);
+
+-- Nothing filters on the category as entered any more
+DROP INDEX idx_posts_category_id;
@@ -0,0 +1,217 @@
+package com.example.helloworld;
+
+import com.example.helloworld.config.StatementBudget;
+import com.example.helloworld.model.Post;
+import com.example.helloworld.model.Swipe;
+import com.example.helloworld.model.User;
+import com.example.helloworld.repository.PostRepository;
+import com.example.helloworld.repository.SwipeRepository;
+import com.example.helloworld.repository.UserRepository;
+import com.example.helloworld.service.ProfileService;
+import com.example.helloworld.service.SwipeIngestionService;
+import com.example.helloworld.service.SwipeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Each JSON endpoint must issue a fixed number of statements however many rows it returns.
+// Every fixture spreads POSTS rows over POSTS distinct authors, so an N+1 would blow the budget.
+// Runs in strict mode, so any endpoint going over its @StatementBudget fails the request too.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:statement-counts;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.sql.strict=true",
+    // Background feed builds would show up in the statement counts; this covers the database path
+    "app.feed.ranked.enabled=false"
+})
+@AutoConfigureMockMvc
+@Import(EndpointStatementCountTests.OverBudgetController.class)
+class EndpointStatementCountTests {
+
+    private static final int POSTS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private SwipeRepository swipeRepository;
+
+    @Autowired
+    private ProfileService profileService;
+
+    @Autowired
+    private SwipeService swipeService;
+
+    @Autowired
+    private SwipeIngestionService swipeIngestionService;
+
+    private User viewer;
+    private User prolificAuthor;
+
+    @BeforeEach
+    void setUp() {
+        // Swipes queued by the previous test would otherwise land between the deletes below
+        swipeIngestionService.flush();
+        swipeRepository.deleteAll();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+
+        viewer = userRepository.save(user("viewer"));
+        prolificAuthor = userRepository.save(user("prolific"));
+        List<Post> others = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            User author = userRepository.save(user("author" + i));
+            others.add(postRepository.save(post("Post " + i, author)));
+            postRepository.save(post("Own " + i, prolificAuthor));
+        }
+        // Half of the other authors' posts are right-swiped, the rest stay in the feed
+        for (int i = 0; i < POSTS / 2; i++) {
+            swipeRepository.save(new Swipe(null, viewer, others.get(i), Swipe.SwipeDirection.RIGHT, LocalDateTime.now()));
+        }
+    }
+
+    @Test
+    void feedIsBounded() throws Exception {
+        String url = "/api/posts/feed?userId=" + viewer.getId();
+        mockMvc.perform(get(url)); // loads the viewer's swipe index
+        assertThat(statementsFor(get(url))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void unchangedFeedIsRevalidatedWithoutStatements() throws Exception {
+        String url = "/api/posts/feed?userId=" + viewer.getId();
+        String etag = mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        Post other = postRepository.findAll().stream()
+            .filter(post -> post.getTitle().startsWith("Post ")).findFirst().orElseThrow();
+        swipeService.swipe(viewer.getId(), other.getId(), Swipe.SwipeDirection.LEFT, null);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void userPostsAreBounded() throws Exception {
+        assertThat(statementsFor(get("/api/posts/user/" + prolificAuthor.getId()))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser
+    void swipeInboxIsBounded() throws Exception {
+        assertThat(statementsFor(get("/api/swipes/inbox?userId=" + viewer.getId()))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void userListIsOneStatementAndHidesPasswords() throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+        String body = mockMvc.perform(get("/api/users"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(body).doesNotContain("password").doesNotContain("secret");
+    }
+
+    @Test
+    void usernameLookupIsCachedUntilTheProfileChanges() {
+        userRepository.findByUsername("viewer");
+        Statistics statistics = statistics();
+        statistics.clear();
+        assertThat(userRepository.findByUsername("viewer")).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        User changes = user("viewer");
+        changes.setBio("Updated bio");
+        profileService.updateProfile("viewer", changes);
+        assertThat(userRepository.findByUsername("viewer")).get()
+            .extracting(User::getBio).isEqualTo("Updated bio");
+    }
+
+    @Test
+    @WithMockUser
+    void overBudgetResponseIsReplacedBeforeItsBodyIsWritten() throws Exception {
+        String body = mockMvc.perform(get(OverBudgetController.PATH))
+            .andExpect(status().isInternalServerError())
+            .andReturn().getResponse().getContentAsString();
+        assertThat(body).doesNotContain(OverBudgetController.PAYLOAD);
+    }
+
+    private long statementsFor(RequestBuilder request) throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+
+    private static Post post(String title, User author) {
+        return new Post(null, title, "Description of " + title, "java", null, "web", author);
+    }
+
+    // Issues three statements against a budget of one and returns its body as a ResponseEntity
+    @RestController
+    static class OverBudgetController {
+
+        static final String PATH = "/api/test/over-budget";
+        static final String PAYLOAD = "over-budget payload";
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @GetMapping(PATH)
+        @StatementBudget(1)
+        ResponseEntity<List<String>> overBudget() {
+            for (int i = 0; i < 3; i++) {
+                userRepository.count();
+            }
+            return ResponseEntity.ok(List.of(PAYLOAD));
+        }
+    }
+}
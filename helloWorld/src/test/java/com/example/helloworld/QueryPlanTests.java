@@ -0,0 +1,370 @@
+package com.example.helloworld;
+
+import com.example.helloworld.model.Post;
+import com.example.helloworld.model.Swipe;
+import com.example.helloworld.repository.ChatMessageRepository;
+import com.example.helloworld.repository.ConversationRepository;
+import com.example.helloworld.repository.LeftSwipeRepository;
+import com.example.helloworld.repository.MessageRepository;
+import com.example.helloworld.repository.PostRepository;
+import com.example.helloworld.repository.ProfileRepository;
+import com.example.helloworld.repository.RefreshTokenRepository;
+import com.example.helloworld.repository.RevokedTokenRepository;
+import com.example.helloworld.repository.SwipeRepository;
+import com.example.helloworld.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs repository queries against the schema built by the migrations, over seeded rows with
+// statistics gathered, picks the statement Hibernate generated for the query under test and checks
+// that H2's EXPLAIN plan, with the same values bound, reads the index meant for it. Every repository
+// query is listed except the three that scan by design: ChatMessageRepository.findByContentContaining
+// and UserRepository.searchUsers (substring matches) and PostRepository.findAllIds (every id).
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:query-plans;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.helloworld.QueryPlanTests$CapturingInspector",
+    "app.feed.ranked.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+
+    private static final int USERS = 100;
+    private static final int POSTS_PER_USER = 20;
+    private static final int SWIPES_PER_USER = 40;
+    private static final int MESSAGES_PER_USER = 20;
+    private static final String[] CATEGORIES = { "Web", "Mobile", "Data", "DevOps", "Games" };
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    // The user every query is run for, with rows of every kind
+    private static final long USER = 7;
+    private static final String USERNAME = username(USER);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private SwipeRepository swipeRepository;
+
+    @Autowired
+    private LeftSwipeRepository leftSwipeRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    // Without rows and statistics H2 costs every index alike and the plans say little
+    @BeforeAll
+    void seed() {
+        int posts = USERS * POSTS_PER_USER;
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> postRows = new ArrayList<>();
+        List<Object[]> swipes = new ArrayList<>();
+        List<Object[]> leftSwipes = new ArrayList<>();
+        List<Object[]> messages = new ArrayList<>();
+        List<Object[]> chatMessages = new ArrayList<>();
+        List<Object[]> conversations = new ArrayList<>();
+        List<Object[]> refreshTokens = new ArrayList<>();
+        List<Object[]> revokedTokens = new ArrayList<>();
+        for (long u = 1; u <= USERS; u++) {
+            users.add(new Object[] { u, username(u), "hash", username(u) + "@example.com" });
+            for (int i = 0; i < POSTS_PER_USER; i++) {
+                long post = (u - 1) * POSTS_PER_USER + i + 1;
+                String category = CATEGORIES[(int) (post % CATEGORIES.length)];
+                postRows.add(new Object[] { post, "Post " + post, "About " + post, "java",
+                    "/uploads/images/" + post + ".jpg", category, Post.normalizeCategory(category), u });
+            }
+            for (int i = 0; i < SWIPES_PER_USER; i++) {
+                long id = (u - 1) * SWIPES_PER_USER + i + 1;
+                long post = (u * 37 + i * 11) % posts + 1;
+                swipes.add(new Object[] { id, u, post, i % 2 == 0 ? "RIGHT" : "LEFT", Timestamp.valueOf(NOW.minusMinutes(i)) });
+                if (i % 4 == 1) {
+                    leftSwipes.add(new Object[] { id, u, post, Timestamp.valueOf(NOW.minusMinutes(i)) });
+                }
+            }
+            for (int i = 0; i < MESSAGES_PER_USER; i++) {
+                long id = (u - 1) * MESSAGES_PER_USER + i + 1;
+                long peer = (u + i) % USERS + 1;
+                messages.add(new Object[] { id, u, peer, "Hello " + id, NOW.minusMinutes(id).toString() });
+                chatMessages.add(new Object[] { id, username(u), username(peer), "Hello " + id, Timestamp.valueOf(NOW.minusMinutes(id)) });
+                if (i < 10) {
+                    conversations.add(new Object[] { id, username(u), username(peer), id, Timestamp.valueOf(NOW.minusMinutes(id)), username(peer), "Hello " + id });
+                }
+            }
+            refreshTokens.add(new Object[] { u, "hash-" + u, u, "family-" + u, Timestamp.valueOf(NOW), Timestamp.valueOf(NOW.plusDays(u - USERS / 2)) });
+            revokedTokens.add(new Object[] { "jti-" + u, Timestamp.valueOf(NOW.plusMinutes(u - USERS / 2)) });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, email) VALUES (?, ?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO posts (id, title, description, stack, image, category, category_norm, author_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", postRows);
+        jdbcTemplate.batchUpdate("INSERT INTO swipes (id, user_id, post_id, direction, swiped_at) VALUES (?, ?, ?, ?, ?)", swipes);
+        jdbcTemplate.batchUpdate("INSERT INTO left_swipes (id, user_id, post_id, timestamp) VALUES (?, ?, ?, ?)", leftSwipes);
+        jdbcTemplate.batchUpdate("INSERT INTO messages (id, from_user_id, to_user_id, content, created_at, is_read) VALUES (?, ?, ?, ?, ?, FALSE)", messages);
+        jdbcTemplate.batchUpdate("INSERT INTO chat_messages (id, sender, recipient, content, timestamp) VALUES (?, ?, ?, ?, ?)", chatMessages);
+        jdbcTemplate.batchUpdate("INSERT INTO conversations (id, owner, peer, last_message_id, last_message_at, last_message_sender, last_message_preview, unread_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0)", conversations);
+        jdbcTemplate.batchUpdate("INSERT INTO refresh_tokens (id, token_hash, user_id, family_id, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)", refreshTokens);
+        jdbcTemplate.batchUpdate("INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?)", revokedTokens);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void swipeLookupsUseTheUserDirectionIndex() {
+        assertThat(plan(() -> swipeRepository.findPostIdsByUserIdAndDirection(USER, Swipe.SwipeDirection.RIGHT),
+            "from swipes", USER, "RIGHT"))
+            .contains("IDX_SWIPES_USER_DIRECTION_POST");
+        assertThat(plan(() -> swipeRepository.findWithPostByUserIdAndDirection(USER, Swipe.SwipeDirection.RIGHT),
+            "from swipes", USER, "RIGHT"))
+            .contains("IDX_SWIPES_USER_DIRECTION_POST");
+        assertThat(plan(() -> swipeRepository.countByCategory(USER, Swipe.SwipeDirection.RIGHT),
+            "from swipes", USER, "RIGHT"))
+            .contains("IDX_SWIPES_USER_DIRECTION_POST");
+        assertThat(plan(() -> swipeRepository.countByAuthor(USER, Swipe.SwipeDirection.RIGHT),
+            "from swipes", USER, "RIGHT"))
+            .contains("IDX_SWIPES_USER_DIRECTION_POST");
+        assertThat(plan(() -> leftSwipeRepository.findPostIdsByUserId(USER), "from left_swipes", USER))
+            .contains("IDX_LEFT_SWIPES_USER_POST");
+        assertThat(plan(() -> swipeRepository.findByUserAndDirection(userRepository.getReferenceById(USER), Swipe.SwipeDirection.RIGHT),
+            "from swipes", USER, "RIGHT"))
+            .contains("IDX_SWIPES_USER_DIRECTION_POST");
+        // Whole rows by user alone: the foreign key's own index on user_id serves as well as (user_id, post_id)
+        assertThat(plan(() -> leftSwipeRepository.findByUser(userRepository.getReferenceById(USER)), "from left_swipes", USER))
+            .contains(constraintIndex("fk_left_swipes_user"));
+    }
+
+    @Test
+    void swipeExistenceChecksUseTheUserPostKeys() {
+        assertThat(plan(() -> swipeRepository.findByUserAndPost(userRepository.getReferenceById(USER), postRepository.getReferenceById(1L)),
+            "from swipes", USER, 1L))
+            .contains("UK_SWIPES_USER_POST");
+        assertThat(plan(() -> leftSwipeRepository.findByUserAndPost(userRepository.getReferenceById(USER), postRepository.getReferenceById(1L)),
+            "from left_swipes", USER, 1L))
+            .contains("IDX_LEFT_SWIPES_USER_POST");
+    }
+
+    @Test
+    void feedExcludesSwipedPostsThroughTheUserPostKeys() {
+        assertThat(plan(() -> postRepository.findFeedPage(USER, 0L, PageRequest.of(0, 50)),
+            "from posts", USER, 0L, USER, USER, 50))
+            .contains("UK_SWIPES_USER_POST", "IDX_LEFT_SWIPES_USER_POST");
+    }
+
+    @Test
+    void postLookupsUseTheirIndexes() {
+        assertThat(plan(() -> postRepository.findByAuthorIdWithAuthor(USER), "from posts", USER))
+            .contains("IDX_POSTS_AUTHOR");
+        assertThat(plan(() -> postRepository.countImageReferences(), "from posts"))
+            .contains("IDX_POSTS_IMAGE");
+        assertThat(plan(() -> postRepository.findFeedPageInCategories(USER, 0L, List.of("web"), PageRequest.of(0, 50)),
+            "from posts", USER, 0L, "web", USER, USER, 50))
+            .contains("IDX_POSTS_CATEGORY_NORM");
+        assertThat(plan(() -> postRepository.findNewestWithAuthor(PageRequest.of(0, 50)), "from posts", 50))
+            .contains("PUBLIC.PRIMARY_KEY", "INDEX SORTED");
+    }
+
+    @Test
+    void userLookupsUseTheirUniqueKeys() {
+        assertThat(plan(() -> userRepository.findByEmail(USERNAME + "@example.com"), "from users",
+            USERNAME + "@example.com"))
+            .contains("UK_USERS_EMAIL");
+        assertThat(plan(() -> userRepository.existsByUsername(USERNAME), "from users", USERNAME, 1))
+            .contains("UK_USERS_USERNAME");
+        // Not USERNAME: findByUsername is query-cached and would not reach the database a second time
+        assertThat(plan(() -> userRepository.findByUsername(username(USER + 1)), "from users", username(USER + 1)))
+            .contains("UK_USERS_USERNAME");
+        assertThat(plan(() -> profileRepository.findByUsername(USERNAME), "from users", USERNAME))
+            .contains("UK_USERS_USERNAME");
+        assertThat(plan(() -> userRepository.existsByEmail(USERNAME + "@example.com"), "from users", USERNAME + "@example.com", 1))
+            .contains("UK_USERS_EMAIL");
+        assertThat(plan(() -> userRepository.countProfilePicReferences(), "from users"))
+            .contains("IDX_USERS_PROFILE_PIC_HASH");
+        assertThat(plan(() -> userRepository.findByIdGreaterThanOrderByIdAsc(USER, PageRequest.of(0, 50)), "from users", USER, 50))
+            .contains("PRIMARY_KEY");
+        assertThat(plan(() -> userRepository.replacePasswordHash(USER, "hash", "rehash"), "update users", "rehash", USER, "hash"))
+            .contains("PRIMARY_KEY");
+    }
+
+    @Test
+    void chatLookupsUseTheirIndexes() {
+        Timestamp now = Timestamp.valueOf(NOW);
+        Timestamp dayAgo = Timestamp.valueOf(NOW.minusDays(1));
+        assertThat(plan(() -> chatMessageRepository.findBySender(USERNAME), "from chat_messages", USERNAME))
+            .contains("IDX_CHAT_MESSAGES_SENDER_TS");
+        assertThat(plan(() -> chatMessageRepository.findByTimestampAfter(NOW.minusMinutes(10)), "from chat_messages",
+            Timestamp.valueOf(NOW.minusMinutes(10))))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP >");
+        assertThat(plan(() -> chatMessageRepository.findByTimestampBetween(NOW.minusMinutes(20), NOW.minusMinutes(10)), "from chat_messages",
+            Timestamp.valueOf(NOW.minusMinutes(20)), Timestamp.valueOf(NOW.minusMinutes(10))))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP >=");
+        // Keyset pages: a range on the timestamp from the cursor on, read in index order where the
+        // filter leaves H2 nothing else to seek on
+        assertThat(plan(() -> chatMessageRepository.findPageBefore(NOW, Long.MAX_VALUE, PageRequest.of(0, 50)),
+            "from chat_messages", now, now, now, Long.MAX_VALUE, 50))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP <=", "INDEX SORTED");
+        assertThat(plan(() -> chatMessageRepository.findPageAfter(NOW.minusDays(1), 0L, PageRequest.of(0, 50)),
+            "from chat_messages", dayAgo, dayAgo, dayAgo, 0L, 50))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP >=", "INDEX SORTED");
+        assertThat(plan(() -> chatMessageRepository.findBySenderPageBefore(USERNAME, NOW, Long.MAX_VALUE, PageRequest.of(0, 50)),
+            "from chat_messages", USERNAME, now, now, now, Long.MAX_VALUE, 50))
+            .contains("IDX_CHAT_MESSAGES_SENDER_TS: SENDER = ?1", "TIMESTAMP <=");
+        assertThat(plan(() -> chatMessageRepository.findBySenderPageAfter(USERNAME, NOW.minusDays(1), 0L, PageRequest.of(0, 50)),
+            "from chat_messages", USERNAME, dayAgo, dayAgo, dayAgo, 0L, 50))
+            .contains("IDX_CHAT_MESSAGES_SENDER_TS: SENDER = ?1", "TIMESTAMP >=");
+        assertThat(plan(() -> chatMessageRepository.findBetweenUsersPageBefore(USERNAME, username(USER + 1), NOW, Long.MAX_VALUE, PageRequest.of(0, 50)),
+            "from chat_messages", USERNAME, username(USER + 1), username(USER + 1), USERNAME, now, now, now, Long.MAX_VALUE, 50))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP <=", "INDEX SORTED");
+        assertThat(plan(() -> chatMessageRepository.findBetweenUsersPageAfter(USERNAME, username(USER + 1), NOW.minusDays(1), 0L, PageRequest.of(0, 50)),
+            "from chat_messages", USERNAME, username(USER + 1), username(USER + 1), USERNAME, dayAgo, dayAgo, dayAgo, 0L, 50))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP >=", "INDEX SORTED");
+        assertThat(plan(() -> chatMessageRepository.findByParticipantPageBefore(USERNAME, NOW, Long.MAX_VALUE, PageRequest.of(0, 50)),
+            "from chat_messages", USERNAME, USERNAME, now, now, now, Long.MAX_VALUE, 50))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP <=", "INDEX SORTED");
+        assertThat(plan(() -> chatMessageRepository.findByParticipantPageAfter(USERNAME, NOW.minusDays(1), 0L, PageRequest.of(0, 50)),
+            "from chat_messages", USERNAME, USERNAME, dayAgo, dayAgo, dayAgo, 0L, 50))
+            .contains("IDX_CHAT_MESSAGES_TS: TIMESTAMP >=", "INDEX SORTED");
+        assertThat(plan(() -> conversationRepository.findByOwnerAndPeer(USERNAME, username(USER + 1)),
+            "from conversations", USERNAME, username(USER + 1)))
+            .contains("UK_CONVERSATIONS_OWNER_PEER");
+        assertThat(plan(() -> conversationRepository.findInboxPage(USERNAME, NOW, Long.MAX_VALUE, PageRequest.of(0, 30)),
+            "from conversations", USERNAME, now, now, Long.MAX_VALUE, 30))
+            .contains("IDX_CONVERSATIONS_OWNER_LAST");
+        assertThat(plan(() -> conversationRepository.repointLastMessage(USERNAME, username(USER + 1), 1L, 2L, NOW, USERNAME, "Hello"),
+            "update conversations", 2L, now, USERNAME, "Hello", USERNAME, username(USER + 1), 1L))
+            .contains("UK_CONVERSATIONS_OWNER_PEER");
+        assertThat(plan(() -> conversationRepository.markRead(USERNAME, username(USER + 1)),
+            "update conversations", USERNAME, username(USER + 1)))
+            .contains("UK_CONVERSATIONS_OWNER_PEER");
+        assertThat(plan(() -> conversationRepository.deleteByOwnerAndPeer(USERNAME, username(USER + 1)),
+            "from conversations", USERNAME, username(USER + 1)))
+            .contains("UK_CONVERSATIONS_OWNER_PEER");
+        // On H2 these are the indexes the foreign keys made for themselves (see V3)
+        assertThat(plan(() -> messageRepository.findByToUserUsernameOrderByCreatedAtDesc(USERNAME), "from messages", USERNAME))
+            .contains(constraintIndex("fk_messages_to_user"));
+        assertThat(plan(() -> messageRepository.findByFromUserUsernameOrderByCreatedAtDesc(USERNAME), "from messages", USERNAME))
+            .contains(constraintIndex("fk_messages_from_user"));
+    }
+
+    @Test
+    void tokenLookupsUseTheirIndexes() {
+        Timestamp now = Timestamp.valueOf(NOW);
+        assertThat(plan(() -> refreshTokenRepository.findByTokenHashWithUser("hash-" + USER), "from refresh_tokens", "hash-" + USER))
+            .contains("UK_REFRESH_TOKENS_HASH");
+        assertThat(plan(() -> revokedTokenRepository.findByExpiresAtAfter(NOW.plusMinutes(USERS / 2 - 5)), "from revoked_tokens",
+            Timestamp.valueOf(NOW.plusMinutes(USERS / 2 - 5))))
+            .contains("IDX_REVOKED_TOKENS_EXPIRES");
+        assertThat(plan(() -> revokedTokenRepository.deleteExpired(NOW.minusMinutes(USERS / 2 - 5)), "from revoked_tokens",
+            Timestamp.valueOf(NOW.minusMinutes(USERS / 2 - 5))))
+            .contains("IDX_REVOKED_TOKENS_EXPIRES");
+        assertThat(plan(() -> refreshTokenRepository.markUsed(USER, NOW), "update refresh_tokens", now, USER))
+            .contains("PRIMARY_KEY");
+        assertThat(plan(() -> refreshTokenRepository.revokeFamily("family-" + USER, NOW), "update refresh_tokens", now, "family-" + USER))
+            .contains("IDX_REFRESH_TOKENS_FAMILY");
+        assertThat(plan(() -> refreshTokenRepository.deleteExpired(NOW.minusDays(USERS / 2 - 5)), "from refresh_tokens",
+            Timestamp.valueOf(NOW.minusDays(USERS / 2 - 5))))
+            .contains("IDX_REFRESH_TOKENS_EXPIRES");
+    }
+
+    // Runs the query in a transaction that is rolled back, takes the statement it issued against the
+    // given table ("from t" for selects and deletes, "update t" for updates) and explains it with the
+    // values the query bound, in order
+    private String plan(Runnable query, String from, Object... values) {
+        String sql = capture(query, from);
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                assertThat(statement.getParameterMetaData().getParameterCount()).as("parameters of %s", sql).isEqualTo(values.length);
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    StringBuilder text = new StringBuilder(sql).append('\n');
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    return text.toString().toUpperCase();
+                }
+            }
+        });
+    }
+
+    private String capture(Runnable query, String from) {
+        List<String> statements = new ArrayList<>();
+        CapturingInspector.CAPTURED.set(statements);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                query.run();
+                status.setRollbackOnly();
+            });
+        } finally {
+            CapturingInspector.CAPTURED.remove();
+        }
+        List<String> matching = statements.stream()
+            .filter(sql -> sql.toLowerCase().contains(from + " ") && !sql.trim().toLowerCase().startsWith("insert"))
+            .toList();
+        assertThat(matching).as("statements %s among %s", from, statements).hasSize(1);
+        return matching.get(0);
+    }
+
+    private String constraintIndex(String constraint) {
+        return jdbcTemplate.queryForObject(
+            "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE CONSTRAINT_NAME = ?",
+            String.class, constraint.toUpperCase());
+    }
+
+    private static String username(long user) {
+        return "user" + user;
+    }
+
+    // Records the SQL Hibernate sends on the calling thread while a query is being captured
+    public static class CapturingInspector implements StatementInspector {
+
+        static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = CAPTURED.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -1,5 +1,15 @@
-import React, { createContext, useContext, useState, useEffect, useCallback } from "react";
+import React, { createContext, useContext, useState, useEffect, useCallback, useRef } from "react";
 import { useNavigate } from "react-router-dom";
+import {
+  REFRESH_MARGIN_SECONDS,
+  accessTokenExpiresIn,
+  clearTokens,
+  freshAccessToken,
+  installAuthRetry,
+  storeTokens as saveTokens,
+} from "./authTokens";
+
+installAuthRetry();
 
 const AuthContext = createContext();
 
@@ -10,6 +20,25 @@ export const AuthProvider = ({ children }) => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const navigate = useNavigate();
+  const refreshTimer = useRef(null);
+
+  // Access tokens are short-lived: renew a minute before expiry using the single-use refresh token.
+  // The timer re-reads the stored token when it fires, since another tab may have renewed it; a
+  // timer that fires late is covered by the 401 retry in authTokens.
+  const scheduleRefresh = useCallback(() => {
+    clearTimeout(refreshTimer.current);
+    if (!localStorage.getItem("refreshToken")) return;
+    const delayMs = Math.max(accessTokenExpiresIn() - REFRESH_MARGIN_SECONDS, 5) * 1000;
+    refreshTimer.current = setTimeout(async () => {
+      await freshAccessToken();
+      scheduleRefresh();
+    }, delayMs);
+  }, []);
+
+  const storeTokens = useCallback((data) => {
+    saveTokens(data);
+    scheduleRefresh();
+  }, [scheduleRefresh]);
 
   const login = async (email, password) => {
     setLoading(true);
@@ -26,7 +55,7 @@ export const AuthProvider = ({ children }) => {
         setLoading(false);
         return false;
       }
-      localStorage.setItem("token", data.token);
+      storeTokens(data);
       const userData = { id: data.id, username: data.username, name: data.name, email: data.email, ...data };
       setUser(userData);
       setLoading(false);
@@ -69,7 +98,7 @@ export const AuthProvider = ({ children }) => {
         return false;
       }
       
-      localStorage.setItem("token", loginData.token);
+      storeTokens(loginData);
       const userData = { 
         id: loginData.id, 
         username: loginData.username, 
@@ -90,10 +119,25 @@ export const AuthProvider = ({ children }) => {
     }
   };
 
-  const logout = () => {
+  const logout = async () => {
+    const token = localStorage.getItem("token");
+    const refreshToken = localStorage.getItem("refreshToken");
+    clearTimeout(refreshTimer.current);
     setUser(null);
-    localStorage.removeItem("token");
+    clearTokens();
     navigate("/login");
+    try {
+      await fetch("http://localhost:9091/api/users/logout", {
+        method: "POST",
+        headers: {
+          "Content-Type": "application/json",
+          ...(token ? { Authorization: `Bearer ${token}` } : {}),
+        },
+        body: JSON.stringify({ refreshToken }),
+      });
+    } catch (err) {
+      console.error("Logout error:", err);
+    }
   };
 
   const validateToken = useCallback(async (token) => {
@@ -130,13 +174,17 @@ export const AuthProvider = ({ children }) => {
 
   useEffect(() => {
     const initializeAuth = async () => {
-      const token = localStorage.getItem("token");
+      // Reuse the stored access token while it is still good; only renew it when it is about to
+      // expire. Mounting twice (StrictMode) or in several tabs shares one refresh.
+      const token = await freshAccessToken();
       if (token) {
+        scheduleRefresh();
         await validateToken(token);
       }
       setLoading(false);
     };
     initializeAuth();
+    return () => clearTimeout(refreshTimer.current);
   }, []);
 
   return (
@@ -1,11 +1,23 @@
 // src/Components/Chat/ChatContext.js
-import React, { createContext, useContext, useState, useEffect, useCallback } from "react";
+import React, { createContext, useContext, useState, useEffect, useCallback, useRef } from "react";
 import * as chatApi from "./api";
 import { useAuth } from "../../AuthContext";
 
 export const ChatContext = createContext();
 export const useChat = () => useContext(ChatContext);
 
+// History endpoints return one page of the newest messages and a cursor for the page before it.
+// Pages are merged by id, so re-fetching the newest page keeps the older pages already loaded.
+const mergeById = (current, incoming) => {
+  const byId = new Map(current.map((m) => [m.id, m]));
+  incoming.forEach((m) => byId.set(m.id, m));
+  return Array.from(byId.values());
+};
+
+// Delay before reopening a failed message stream, doubled per failure up to the maximum
+const STREAM_RETRY_MS = 2000;
+const STREAM_MAX_RETRY_MS = 30000;
+
 export const ChatProvider = ({ children }) => {
   const { user: loggedInUser } = useAuth();
 
@@ -13,10 +25,13 @@ export const ChatProvider = ({ children }) => {
   const [allMessages, setAllMessages] = useState([]);
   const [allUsers, setAllUsers] = useState([]);
   const [selectedUser, setSelectedUser] = useState(null);
+  // Cursor for the conversation page before the oldest loaded message; null when all are loaded
+  const [olderCursor, setOlderCursor] = useState(null);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
 
-  // Fetch all messages involving the logged-in user
+  // Fetch all messages involving the logged-in user. The inbox is built from them, so this walks
+  // back through every page rather than stopping at the newest one.
   const fetchAllMessages = useCallback(async () => {
     if (!loggedInUser) {
       setAllMessages([]);
@@ -26,7 +41,13 @@ export const ChatProvider = ({ children }) => {
     setLoading(true);
     try {
       const currentUsername = loggedInUser.username || loggedInUser.name;
-      const msgs = await chatApi.getMessagesBySender(currentUsername);
+      const msgs = [];
+      let before = null;
+      do {
+        const page = await chatApi.getMessagesBySender(currentUsername, { before });
+        msgs.push(...page.messages);
+        before = page.nextCursor;
+      } while (before);
       setAllMessages(msgs);
     } catch (err) {
       setError(err);
@@ -35,20 +56,22 @@ export const ChatProvider = ({ children }) => {
     }
   }, [loggedInUser]);
 
-  // Fetch messages between logged-in user and selected user
+  // Fetch the newest page of messages between logged-in user and selected user
   const fetchMessages = useCallback(async () => {
     if (!selectedUser || !loggedInUser) {
       setMessages([]);
+      setOlderCursor(null);
       return;
     }
 
     setLoading(true);
     try {
-      const msgs = await chatApi.getMessagesBetweenUsers(
+      const page = await chatApi.getMessagesBetweenUsers(
         loggedInUser.username || loggedInUser.name,
         selectedUser.username || selectedUser.name
       );
-      setMessages(msgs);
+      setMessages(page.messages);
+      setOlderCursor(page.nextCursor);
     } catch (err) {
       setError(err);
     } finally {
@@ -56,6 +79,42 @@ export const ChatProvider = ({ children }) => {
     }
   }, [selectedUser, loggedInUser]);
 
+  // Load the page of the conversation before the oldest message loaded so far
+  const loadOlderMessages = useCallback(async () => {
+    if (!selectedUser || !loggedInUser || !olderCursor) return;
+
+    setLoading(true);
+    try {
+      const page = await chatApi.getMessagesBetweenUsers(
+        loggedInUser.username || loggedInUser.name,
+        selectedUser.username || selectedUser.name,
+        { before: olderCursor }
+      );
+      setMessages((prev) => mergeById(page.messages, prev));
+      setOlderCursor(page.nextCursor);
+    } catch (err) {
+      setError(err);
+    } finally {
+      setLoading(false);
+    }
+  }, [selectedUser, loggedInUser, olderCursor]);
+
+  // Merge the newest pages into what is loaded, keeping older pages the user already fetched
+  const fetchLatestMessages = useCallback(async () => {
+    if (!loggedInUser) return;
+    const currentUsername = loggedInUser.username || loggedInUser.name;
+    const [conversation, mine] = await Promise.all([
+      selectedUser
+        ? chatApi.getMessagesBetweenUsers(currentUsername, selectedUser.username || selectedUser.name)
+        : null,
+      chatApi.getMessagesBySender(currentUsername),
+    ]);
+    if (conversation) {
+      setMessages((prev) => mergeById(prev, conversation.messages));
+    }
+    setAllMessages((prev) => mergeById(prev, mine.messages));
+  }, [selectedUser, loggedInUser]);
+
   // Send a message to the selected user
   const sendMessage = useCallback(
     async (msg) => {
@@ -72,14 +131,14 @@ export const ChatProvider = ({ children }) => {
           sender: loggedInUser.username || loggedInUser.name,
         });
 
-        await fetchMessages();
-        await fetchAllMessages();
+        await fetchLatestMessages();
+        setMessages((prev) => prev.filter((m) => m.id !== tempId));
       } catch (err) {
         setError(err);
         setMessages((prev) => prev.filter((m) => m.id !== tempId));
       }
     },
-    [selectedUser, loggedInUser, fetchMessages, fetchAllMessages]
+    [selectedUser, loggedInUser, fetchLatestMessages]
   );
 
   const deleteMessage = useCallback(async (id) => {
@@ -107,9 +166,84 @@ export const ChatProvider = ({ children }) => {
   }, []);
 
   const refreshMessages = useCallback(() => {
-    fetchMessages();
-    fetchAllMessages();
-  }, [fetchMessages, fetchAllMessages]);
+    fetchLatestMessages().catch(setError);
+  }, [fetchLatestMessages]);
+
+  // Read by the message stream, which stays open across renders
+  const selectedUserRef = useRef(null);
+  const reloadRef = useRef(() => {});
+  useEffect(() => {
+    selectedUserRef.current = selectedUser;
+    reloadRef.current = () => {
+      fetchAllMessages();
+      fetchMessages();
+    };
+  }, [selectedUser, fetchAllMessages, fetchMessages]);
+
+  // New messages to and from the logged-in user arrive over the event stream. A stream that fails
+  // is reopened after a delay and resumes after the last event; one that fell too far behind
+  // gets "resync", and history is reloaded before following again.
+  useEffect(() => {
+    if (!loggedInUser) return;
+    const currentUsername = loggedInUser.username || loggedInUser.name;
+    let source = null;
+    let retryTimer = null;
+    let retryDelay = STREAM_RETRY_MS;
+    let lastEventId = null;
+    let closed = false;
+
+    const onMessage = (event) => {
+      lastEventId = event.lastEventId || lastEventId;
+      retryDelay = STREAM_RETRY_MS;
+      const message = JSON.parse(event.data);
+      setAllMessages((prev) => mergeById(prev, [message]));
+      const peer = message.sender === currentUsername ? message.recipient : message.sender;
+      const selected = selectedUserRef.current;
+      if (selected && (selected.username || selected.name) === peer) {
+        setMessages((prev) => mergeById(prev, [message]));
+      }
+    };
+
+    const reconnect = () => {
+      if (closed) return;
+      retryTimer = setTimeout(connect, retryDelay);
+      retryDelay = Math.min(retryDelay * 2, STREAM_MAX_RETRY_MS);
+    };
+
+    async function connect() {
+      let stream;
+      try {
+        stream = await chatApi.openMessageStream(lastEventId);
+      } catch (err) {
+        reconnect();
+        return;
+      }
+      if (closed) {
+        stream.close();
+        return;
+      }
+      source = stream;
+      stream.addEventListener("message", onMessage);
+      stream.addEventListener("resync", () => {
+        stream.close();
+        lastEventId = null;
+        reloadRef.current();
+        connect();
+      });
+      // The ticket is spent, so EventSource's own reconnect would be refused; open a new stream
+      stream.onerror = () => {
+        stream.close();
+        reconnect();
+      };
+    }
+
+    connect();
+    return () => {
+      closed = true;
+      clearTimeout(retryTimer);
+      if (source) source.close();
+    };
+  }, [loggedInUser]);
 
   // Fetch all users for inbox/search
   useEffect(() => {
@@ -140,6 +274,8 @@ export const ChatProvider = ({ children }) => {
     <ChatContext.Provider
       value={{
         messages,
+        hasOlderMessages: olderCursor != null,
+        loadOlderMessages,
         allMessages,
         allUsers,
         selectedUser,
@@ -3,14 +3,16 @@ import { useChat } from "./ChatContext";
 import { useAuth } from "../../AuthContext";
 
 const ChatWindow = () => {
-  const { messages, sendMessage, loading, error, selectedUser } = useChat();
+  const { messages, hasOlderMessages, loadOlderMessages, sendMessage, loading, error, selectedUser } = useChat();
   const { user: loggedInUser } = useAuth();
   const [input, setInput] = useState("");
   const messagesEndRef = useRef(null);
 
+  // Follow new messages at the bottom, but stay put when an older page is added at the top
+  const newestId = messages.reduce((max, m) => (m.id > max ? m.id : max), 0);
   useEffect(() => {
     messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
-  }, [messages]);
+  }, [newestId]);
 
   if (!selectedUser) {
     return (
@@ -59,6 +61,18 @@ const ChatWindow = () => {
           </div>
         )}
         <div className="max-w-4xl mx-auto w-full px-2 space-y-4 py-2">
+          {hasOlderMessages && (
+            <div className="flex justify-center">
+              <button
+                type="button"
+                onClick={loadOlderMessages}
+                disabled={loading}
+                className="px-3 py-1 text-xs rounded-sm border border-green-700 text-green-300 hover:bg-green-500/10 disabled:opacity-50"
+              >
+                Load older messages
+              </button>
+            </div>
+          )}
           {chatMessages.map((msg, idx) => {
             const isSentByCurrentUser = msg.sender === currentUsername;
             const showSender = !isSentByCurrentUser && 
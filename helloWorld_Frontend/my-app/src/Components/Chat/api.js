@@ -2,6 +2,7 @@
 // Utility functions for chat API endpoints
 
 const API_BASE = "http://localhost:9091/api/chat/messages";
+const STREAM_URL = "http://localhost:9091/api/chat/stream";
 
 /**
  * Get authorization headers if token exists
@@ -11,6 +12,26 @@ function getAuthHeaders() {
   return token ? { "Authorization": `Bearer ${token}` } : {};
 }
 
+/**
+ * Query string for a history page. History endpoints return one page, newest messages by default;
+ * pass the previous page's nextCursor as `before` to get the page of older messages before it.
+ * @param {{before?: string, limit?: number}} page
+ */
+function pageParams({ before, limit } = {}) {
+  const params = new URLSearchParams();
+  if (before) params.set("before", before);
+  if (limit) params.set("limit", limit);
+  return params;
+}
+
+/**
+ * Reads a history page: the messages plus the cursor for the next older page,
+ * null when there are no older messages
+ */
+async function readPage(res) {
+  return { messages: await res.json(), nextCursor: res.headers.get("X-Next-Cursor") };
+}
+
 /**
  * Send a new chat message
  * @param {{sender: string, content: string}} message
@@ -36,15 +57,21 @@ export async function sendMessage(message) {
   return res.json();
 }
 
-export async function getAllMessages() {
-  const res = await fetch(API_BASE, {
+/**
+ * One page of all messages, newest first
+ * @param {{before?: string, limit?: number}} page
+ * @returns {Promise<{messages: Array, nextCursor: string|null}>}
+ */
+export async function getAllMessages(page) {
+  const query = pageParams(page).toString();
+  const res = await fetch(query ? `${API_BASE}?${query}` : API_BASE, {
     headers: getAuthHeaders()
   });
   if (!res.ok) {
     const errorText = await res.text();
     throw new Error(`Failed to fetch messages: ${res.status} ${res.statusText} - ${errorText}`);
   }
-  return res.json();
+  return readPage(res);
 }
 
 export async function getMessageById(id) {
@@ -58,16 +85,21 @@ export async function getMessageById(id) {
   return res.json();
 }
 
-export async function getMessagesBySender(sender) {
-  // Use the new endpoint that returns all messages where user is sender or recipient
-  const res = await fetch(`${API_BASE}/user/${encodeURIComponent(sender)}`, {
+/**
+ * One page of the messages where the user is sender or recipient, oldest first within the page
+ * @param {string} sender
+ * @param {{before?: string, limit?: number}} page
+ * @returns {Promise<{messages: Array, nextCursor: string|null}>}
+ */
+export async function getMessagesBySender(sender, page) {
+  const res = await fetch(`${API_BASE}/user/${encodeURIComponent(sender)}?${pageParams(page)}`, {
     headers: getAuthHeaders()
   });
   if (!res.ok) {
     const errorText = await res.text();
     throw new Error(`Failed to fetch messages by user: ${res.status} ${res.statusText} - ${errorText}`);
   }
-  return res.json();
+  return readPage(res);
 }
 
 export async function getRecentMessages(limit) {
@@ -104,15 +136,48 @@ export async function deleteMessage(id) {
   return res.json();
 }
 
-export async function getMessagesBetweenUsers(user1, user2) {
-  const res = await fetch(`${API_BASE}/between?user1=${encodeURIComponent(user1)}&user2=${encodeURIComponent(user2)}`, {
+/**
+ * One page of the conversation between two users, oldest first within the page
+ * @param {string} user1
+ * @param {string} user2
+ * @param {{before?: string, limit?: number}} page
+ * @returns {Promise<{messages: Array, nextCursor: string|null}>}
+ */
+export async function getMessagesBetweenUsers(user1, user2, page) {
+  const params = pageParams(page);
+  params.set("user1", user1);
+  params.set("user2", user2);
+  const res = await fetch(`${API_BASE}/between?${params}`, {
     headers: getAuthHeaders()
   });
   if (!res.ok) {
     const errorText = await res.text();
     throw new Error(`Failed to fetch messages between users: ${res.status} ${res.statusText} - ${errorText}`);
   }
-  return res.json();
+  return readPage(res);
+}
+
+/**
+ * Opens the event stream of the user's new messages. EventSource cannot send the bearer token,
+ * so this first trades it for a single-use ticket. Pass the last event id seen to have what was
+ * missed replayed first. A ticket opens one connection only: on error, close the stream and open
+ * a new one rather than relying on EventSource's own reconnect.
+ * @param {string|null} after
+ * @returns {Promise<EventSource>}
+ */
+export async function openMessageStream(after) {
+  const res = await fetch(`${STREAM_URL}/ticket`, {
+    method: "POST",
+    headers: getAuthHeaders()
+  });
+  if (!res.ok) {
+    const errorText = await res.text();
+    throw new Error(`Failed to open message stream: ${res.status} ${res.statusText} - ${errorText}`);
+  }
+  const { ticket } = await res.json();
+  const params = new URLSearchParams({ ticket });
+  if (after) params.set("after", after);
+  return new EventSource(`${STREAM_URL}?${params}`);
 }
 
 export async function getAllUsers() {
@@ -1,5 +1,5 @@
 // Feed.js (Matrix background fixed)
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import Post from "./Post";
 import { swipePost } from "./api";
 import { leftSwipePost } from "./leftSwipeApi";
@@ -8,8 +8,17 @@ import axios from "axios";
 import { sendMessage } from "../Chat/api";
 import { motion, AnimatePresence } from "framer-motion";
 
+// The backend pages the feed with an opaque cursor: each response carries the cursor for the next
+// page in X-Next-Cursor, and the feed is over once it is missing. Pages can be short or empty
+// before that, so paging goes by the cursor, not the page length.
+const PAGE_SIZE = 50;
+// Fetch the next page once the user is this many posts from the end of what is loaded
+const PREFETCH_REMAINING = 5;
+
 const Feed = ({ onRightSwipe, onLeftSwipe }) => {
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const hasMore = nextCursor != null;
   const [index, setIndex] = useState(0);
   const [leftSwiped, setLeftSwiped] = useState([]);
   const [direction, setDirection] = useState(0);
@@ -18,6 +27,10 @@ const Feed = ({ onRightSwipe, onLeftSwipe }) => {
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState("");
   const { addRightSwipedPost, CURRENT_USER } = useAppContext();
+  // Bumped when the user or category filter changes, so pages for the old feed are dropped
+  const feedGeneration = useRef(0);
+  // The generation nextCursor belongs to; a cursor from an older feed must not be followed
+  const cursorGeneration = useRef(0);
 
   // Helper to compare arrays by value
   const arraysEqual = (a = [], b = []) => {
@@ -30,37 +43,85 @@ const Feed = ({ onRightSwipe, onLeftSwipe }) => {
     return true;
   };
 
-  // Fetch posts whenever user or selected categories change
+  const fetchPage = async (cursor) => {
+    const params = new URLSearchParams();
+    params.set("userId", CURRENT_USER.id);
+    params.set("limit", PAGE_SIZE);
+    if (cursor != null) {
+      params.set("cursor", cursor);
+    }
+    if (selectedCategories && selectedCategories.length > 0) {
+      // backend supports comma-separated or repeated params; we'll send comma-separated
+      params.set("categories", selectedCategories.join(","));
+    }
+    const url = `http://localhost:9091/api/posts/feed?${params.toString()}`;
+    const res = await axios.get(url);
+    return { posts: res.data || [], cursor: res.headers["x-next-cursor"] || null };
+  };
+
+  // Start over from the first page whenever user or selected categories change
   useEffect(() => {
-    const fetchPosts = async () => {
+    const generation = ++feedGeneration.current;
+    const fetchFirstPage = async () => {
       if (!CURRENT_USER || !CURRENT_USER.id) return;
       setLoading(true);
       setError("");
       try {
-        const params = new URLSearchParams();
-        params.set("userId", CURRENT_USER.id);
-        if (selectedCategories && selectedCategories.length > 0) {
-          // backend supports comma-separated or repeated params; we'll send comma-separated
-          params.set("categories", selectedCategories.join(","));
-        }
-        const url = `http://localhost:9091/api/posts/feed?${params.toString()}`;
-        const res = await axios.get(url);
-        setPosts(res.data || []);
+        const page = await fetchPage(null);
+        if (generation !== feedGeneration.current) return;
+        setPosts(page.posts);
+        cursorGeneration.current = generation;
+        setNextCursor(page.cursor);
         // We don't set categories here; categories should reflect only currently visible posts
       } catch (e) {
+        if (generation !== feedGeneration.current) return;
         console.error("Failed to fetch posts:", e);
         setError("Failed to load feed");
         setPosts([]);
+        setNextCursor(null);
       } finally {
-        setLoading(false);
+        if (generation === feedGeneration.current) setLoading(false);
       }
     };
-    fetchPosts();
+    fetchFirstPage();
+    // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [CURRENT_USER, selectedCategories]);
 
+  const fetchNextPage = async () => {
+    const generation = feedGeneration.current;
+    if (loading || !hasMore || cursorGeneration.current !== generation) return;
+    setLoading(true);
+    try {
+      const page = await fetchPage(nextCursor);
+      if (generation !== feedGeneration.current) return;
+      setPosts((prev) => {
+        const seen = new Set(prev.map((p) => p.id));
+        return [...prev, ...page.posts.filter((p) => !seen.has(p.id))];
+      });
+      setNextCursor(page.cursor);
+    } catch (e) {
+      if (generation !== feedGeneration.current) return;
+      console.error("Failed to fetch more posts:", e);
+      setError("Failed to load more posts");
+      // Stop paging rather than retrying on every render; the feed wraps around what is loaded
+      setNextCursor(null);
+    } finally {
+      if (generation === feedGeneration.current) setLoading(false);
+    }
+  };
+
   const visiblePosts = posts.filter((p) => !leftSwiped.includes(p.id));
   const currentPost = visiblePosts[index] || null;
 
+  // Load the next page before the user runs out of posts; re-runs after short or empty pages too,
+  // since each one moves the cursor on
+  useEffect(() => {
+    if (hasMore && !loading && index >= visiblePosts.length - PREFETCH_REMAINING) {
+      fetchNextPage();
+    }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [index, visiblePosts.length, nextCursor, loading]);
+
   // Recompute available categories based on currently visible posts
   useEffect(() => {
     const cats = Array.from(
@@ -135,6 +196,8 @@ const Feed = ({ onRightSwipe, onLeftSwipe }) => {
   function goToNext() {
     setTimeout(() => {
       if (index < visiblePosts.length - 1) setIndex(index + 1);
+      // More posts are on their way; show the next one as soon as its page arrives
+      else if (hasMore) setIndex(visiblePosts.length);
       else setIndex(0);
     }, 400);
   }
@@ -19,6 +19,17 @@ const Post = ({ post, onRightSwipe, onLeftSwipe }) => {
       imageSrc = `${IMAGE_BASE}${encodeURIComponent(rawImage)}`;
     }
   }
+  // Images uploaded through /api/uploads have resized variants; let the browser pick one
+  const variantBase =
+    typeof rawImage === "string" && /^\/uploads\/images\/[0-9a-f]{64}$/.test(rawImage)
+      ? `${BACKEND_ORIGIN}${rawImage}`
+      : null;
+  if (variantBase) {
+    imageSrc = `${variantBase}/w640.jpg`;
+  }
+  const imageSrcSet = variantBase
+    ? `${variantBase}/w320.jpg 320w, ${variantBase}/w640.jpg 640w, ${variantBase}/w1280.jpg 1280w`
+    : undefined;
   const [imageFailed, setImageFailed] = useState(false);
   const shouldShowImage = Boolean(imageSrc) && !imageFailed;
   return (
@@ -31,6 +42,9 @@ const Post = ({ post, onRightSwipe, onLeftSwipe }) => {
       {shouldShowImage ? (
         <img
           src={imageSrc}
+          srcSet={imageSrcSet}
+          sizes="(max-width: 672px) 100vw, 672px"
+          loading="lazy"
           alt={post.title || "Project image"}
           className="w-full h-64 object-cover mb-6 border border-green-500 rounded-lg"
           onError={() => {
@@ -22,6 +22,8 @@ const RightSwiped = () => {
     const rawImage = post?.imageUrl || post?.image || null;
     if (!rawImage || typeof rawImage !== "string") return null;
     if (/^https?:\/\//i.test(rawImage)) return rawImage;
+    // Uploaded images have resized variants; the cards are small
+    if (/^\/uploads\/images\/[0-9a-f]{64}$/.test(rawImage)) return `${BACKEND_ORIGIN}${rawImage}/w320.jpg`;
     if (rawImage.startsWith("/")) return `${BACKEND_ORIGIN}${rawImage}`;
     return `${IMAGE_BASE}${encodeURIComponent(rawImage)}`;
   };
@@ -73,6 +75,7 @@ const RightSwiped = () => {
               {imgSrc ? (
                 <img
                   src={imgSrc}
+                  loading="lazy"
                   alt={post.title || "Project image"}
                   className="w-full h-40 object-cover mb-4 border border-green-500 rounded-md"
                 />
@@ -11,9 +11,8 @@ const ProfileCard = ({ profile }) => {
   const bio = profile?.bio || "No bio available";
   const profilePicUrl = profile?.profilePicUrl;
 
-  // For search results, backend returns User entity (no profilePicUrl),
-  // but profile pics are served at /api/profile/{username}/profile-pic when present.
-  // Use that endpoint and gracefully fallback to ui-avatars if it 404s.
+  // Search results carry profilePicUrl when the user has a picture; otherwise try the
+  // /api/profile/{username}/profile-pic endpoint and fall back to ui-avatars if it 404s.
   const backendAvatar = `http://localhost:9091/api/profile/${encodeURIComponent(username)}/profile-pic`;
   const fallbackAvatar = `https://ui-avatars.com/api/?name=${encodeURIComponent(fullName)}&background=random`;
   const resolvedAvatar = profilePicUrl
@@ -0,0 +1,131 @@
+import axios from "axios";
+
+// Access and refresh tokens, shared by every request in the tab. Refresh tokens are single use:
+// the server treats a second use as theft and revokes the whole session. So there is at most
+// one refresh in flight per tab, and tabs take turns through a Web Lock and adopt a token that
+// another tab renewed meanwhile instead of spending the old one again.
+
+const REFRESH_URL = "http://localhost:9091/api/users/refresh";
+const LOCK_NAME = "auth-token-refresh";
+// Renew this long before the access token expires
+export const REFRESH_MARGIN_SECONDS = 60;
+
+let inFlight = null;
+
+export function storeTokens(data) {
+  localStorage.setItem("token", data.token);
+  if (data.refreshToken) {
+    localStorage.setItem("refreshToken", data.refreshToken);
+  }
+}
+
+export function clearTokens() {
+  localStorage.removeItem("token");
+  localStorage.removeItem("refreshToken");
+}
+
+// Seconds until the stored access token expires, read from its exp claim; 0 if unknown or expired
+export function accessTokenExpiresIn(token = localStorage.getItem("token")) {
+  if (!token) return 0;
+  try {
+    const payload = token.split(".")[1].replace(/-/g, "+").replace(/_/g, "/");
+    const { exp } = JSON.parse(atob(payload));
+    return Math.max(0, Math.floor(exp - Date.now() / 1000));
+  } catch (err) {
+    return 0;
+  }
+}
+
+// The stored access token when it has more than the margin left, otherwise a renewed one
+export async function freshAccessToken() {
+  if (accessTokenExpiresIn() > REFRESH_MARGIN_SECONDS) {
+    return localStorage.getItem("token");
+  }
+  return refreshTokens();
+}
+
+// Renews the access token; concurrent callers share one request. Resolves to the new access
+// token, or null when there is no session (tokens are cleared if the server rejected it).
+export function refreshTokens() {
+  if (!inFlight) {
+    const presented = localStorage.getItem("refreshToken");
+    inFlight = withLock(() => refreshOnce(presented)).finally(() => {
+      inFlight = null;
+    });
+  }
+  return inFlight;
+}
+
+async function refreshOnce(presented) {
+  const refreshToken = localStorage.getItem("refreshToken");
+  if (!refreshToken) return null;
+  if (refreshToken !== presented) {
+    // Another tab renewed while this one waited for the lock
+    return localStorage.getItem("token");
+  }
+  try {
+    const res = await fetch(REFRESH_URL, {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify({ refreshToken }),
+    });
+    if (!res.ok) {
+      // Only forget the session if no other tab has replaced it in the meantime
+      if (localStorage.getItem("refreshToken") === refreshToken) clearTokens();
+      return null;
+    }
+    const data = await res.json();
+    storeTokens(data);
+    return data.token;
+  } catch (err) {
+    console.error("Token refresh error:", err);
+    return null;
+  }
+}
+
+function withLock(task) {
+  if (typeof navigator !== "undefined" && navigator.locks) {
+    return navigator.locks.request(LOCK_NAME, task);
+  }
+  return task();
+}
+
+// Requests sent with a bearer token that come back 401 (the token expired, e.g. because a
+// throttled or sleeping timer missed its renewal) are retried once with a renewed token.
+// Covers fetch and axios, which the app uses side by side.
+let installed = false;
+
+export function installAuthRetry() {
+  if (installed) return;
+  installed = true;
+
+  const nativeFetch = window.fetch.bind(window);
+  window.fetch = async (input, init = {}) => {
+    const response = await nativeFetch(input, init);
+    const headers = new Headers(init.headers);
+    if (response.status !== 401 || !isBearer(headers.get("Authorization"))) {
+      return response;
+    }
+    const token = await refreshTokens();
+    if (!token) return response;
+    headers.set("Authorization", `Bearer ${token}`);
+    return nativeFetch(input, { ...init, headers });
+  };
+
+  axios.interceptors.response.use(undefined, async (error) => {
+    const config = error.config;
+    if (error.response?.status !== 401 || !config || config.authRetried
+        || !isBearer(config.headers?.Authorization)) {
+      throw error;
+    }
+    const token = await refreshTokens();
+    if (!token) throw error;
+    config.authRetried = true;
+    config.headers.Authorization = `Bearer ${token}`;
+    return axios(config);
+  });
+}
+
+function isBearer(value) {
+  return typeof value === "string" && value.startsWith("Bearer ");
+}